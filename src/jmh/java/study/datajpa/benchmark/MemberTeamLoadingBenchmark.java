@@ -0,0 +1,153 @@
+package study.datajpa.benchmark;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.DataJpaApplication;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.entity.Member;
+import study.datajpa.monitoring.QueryCounter;
+import study.datajpa.repository.MemberRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// member + team 을 함께 읽는 방식별 처리량 / 할당량 / SQL 수 비교
+// in-memory H2 에 member 를 param 수만큼(team 하나당 100명) 넣고 전체를 읽어서 team 이름까지 접근
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class MemberTeamLoadingBenchmark {
+
+    private static final int MEMBERS_PER_TEAM = 100;
+    private static final int INSERT_BATCH = 1_000;
+
+    @Param({"1000", "100000", "1000000"})
+    public int members;
+
+    private ConfigurableApplicationContext context;
+    private MemberRepository memberRepository;
+    private TransactionTemplate readOnlyTx;
+
+    // 한 iteration 동안 실행된 SQL 수와 operation 수 (SQL 수 / operation 수 = operation 당 SQL 수)
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class SqlCounter {
+        public long sqlStatements;
+        public long operations;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            sqlStatements = 0;
+            operations = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // 2차 캐시가 켜져 있으면 두 번째 operation 부터 team 을 DB 에서 읽지 않으므로 로딩 방식 자체만 비교하기 위해 끔
+        context = new SpringApplicationBuilder(DataJpaApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:jmh;DB_CLOSE_DELAY=-1",
+                        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+                        "spring.jpa.properties.hibernate.format_sql=false",
+                        "logging.level.org.hibernate.SQL=info")
+                .run();
+        memberRepository = context.getBean(MemberRepository.class);
+        readOnlyTx = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnlyTx.setReadOnly(true);
+        seed(context.getBean(JdbcTemplate.class));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public long lazyLoading(SqlCounter counter) {
+        return touchTeams(counter, memberRepository::findMemberCustom);
+    }
+
+    @Benchmark
+    public long fetchJoin(SqlCounter counter) {
+        return touchTeams(counter, memberRepository::findMemberFetchJoin);
+    }
+
+    @Benchmark
+    public long entityGraph(SqlCounter counter) {
+        return touchTeams(counter, memberRepository::findMemberEntityGraph);
+    }
+
+    @Benchmark
+    public long findAllEntityGraph(SqlCounter counter) {
+        return touchTeams(counter, memberRepository::findAll);
+    }
+
+    @Benchmark
+    public long dtoProjection(SqlCounter counter) {
+        return measure(counter, () -> {
+            long length = 0;
+            for (MemberDto dto : memberRepository.findMemberDto()) {
+                length += dto.getTeamName().length();
+            }
+            return length;
+        });
+    }
+
+    private long touchTeams(SqlCounter counter, Supplier<List<Member>> query) {
+        return measure(counter, () -> {
+            long length = 0;
+            for (Member member : query.get()) {
+                length += member.getTeam().getName().length();
+            }
+            return length;
+        });
+    }
+
+    private long measure(SqlCounter counter, Supplier<Long> work) {
+        try (QueryCounter.Scope scope = QueryCounter.open()) {
+            Long result = readOnlyTx.execute(status -> work.get());
+            counter.sqlStatements += scope.getCount();
+            counter.operations++;
+            return result;
+        }
+    }
+
+    private void seed(JdbcTemplate jdbcTemplate) {
+        // 애플리케이션 시작 시 들어가는 팀 없는 member 는 제외
+        jdbcTemplate.update("delete from member");
+
+        int teamCount = Math.max(1, members / MEMBERS_PER_TEAM);
+        jdbcTemplate.update("insert into team (team_id, name, version) " +
+                "select next value for team_seq, concat('team', x), 0 from system_range(1, ?)", teamCount);
+        List<Long> teamIds = jdbcTemplate.queryForList("select team_id from team order by team_id", Long.class);
+
+        List<Object[]> batch = new ArrayList<>(INSERT_BATCH);
+        for (int i = 0; i < members; i++) {
+            batch.add(new Object[]{"member" + i, i % 100, teamIds.get(i % teamIds.size())});
+            if (batch.size() == INSERT_BATCH || i == members - 1) {
+                jdbcTemplate.batchUpdate("insert into member (member_id, username, age, team_id, version, processed) " +
+                        "values (next value for member_seq, ?, ?, ?, 0, false)", batch);
+                batch.clear();
+            }
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package study.datajpa.auditing;
+
+// app.auditing.mode
+public enum AuditingMode {
+    // Spring Data 의 AuditingHandler 로 기록 - 저장할 때마다 AuditorAware 와 현재 시각을 새로 조회
+    STANDARD,
+    // 트랜잭션당 한번만 조회한 작성자 + 캐시된 시계로 엔티티 메서드를 직접 호출해서 기록
+    FAST
+}
@@ -0,0 +1,35 @@
+package study.datajpa.auditing;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// 백그라운드 스레드가 resolution 마다 현재 시각을 갱신하고, 읽는 쪽은 volatile 필드만 읽음
+// 저장이 몰려도 시스템 시계 호출/LocalDateTime 생성이 resolution 당 한번으로 줄어듦
+// 대신 기록되는 시각은 최대 resolution 만큼 늦을 수 있음
+public class CachedClock implements AutoCloseable {
+
+    private final ScheduledExecutorService ticker;
+    private volatile LocalDateTime now = LocalDateTime.now();
+
+    public CachedClock(Duration resolution) {
+        this.ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cached-clock");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long nanos = resolution.toNanos();
+        ticker.scheduleAtFixedRate(() -> now = LocalDateTime.now(), nanos, nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public LocalDateTime now() {
+        return now;
+    }
+
+    @Override
+    public void close() {
+        ticker.shutdownNow();
+    }
+}
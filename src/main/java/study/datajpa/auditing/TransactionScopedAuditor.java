@@ -0,0 +1,41 @@
+package study.datajpa.auditing;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// 작성자를 트랜잭션당 한번만 AuditorAware 에서 꺼내고 같은 트랜잭션의 나머지 저장에서는 재사용
+// 트랜잭션 밖에서 호출되면 매번 조회
+@RequiredArgsConstructor
+public class TransactionScopedAuditor {
+
+    private static final Object KEY = new Object();
+
+    private final AuditorAware<String> auditorAware;
+
+    public String currentAuditor() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return resolve();
+        }
+        String cached = (String) TransactionSynchronizationManager.getResource(KEY);
+        if (cached != null) {
+            return cached;
+        }
+        String auditor = resolve();
+        if (auditor != null) {
+            TransactionSynchronizationManager.bindResource(KEY, auditor);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(KEY);
+                }
+            });
+        }
+        return auditor;
+    }
+
+    private String resolve() {
+        return auditorAware.getCurrentAuditor().orElse(null);
+    }
+}
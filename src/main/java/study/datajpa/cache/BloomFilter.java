@@ -0,0 +1,110 @@
+package study.datajpa.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// 문자열 집합에 대한 Bloom filter - mightContain 이 false 면 확실히 없고, true 면 있을 수도 있음
+// 비트 배열을 AtomicLongArray 로 두어 락 없이 여러 스레드가 동시에 put/mightContain 할 수 있음
+// 삭제는 지원하지 않으므로 지운 값은 계속 "있을 수도 있음"으로 남음 (rebuild 로만 정리됨)
+public class BloomFilter {
+
+    private final AtomicLongArray words;
+    private final long bitCount;
+    private final int hashCount;
+    private final long expectedInsertions;
+    private final LongAdder insertions = new LongAdder();
+
+    private BloomFilter(long bitCount, int hashCount, long expectedInsertions) {
+        this.words = new AtomicLongArray((int) ((bitCount + 63) / 64));
+        this.bitCount = bitCount;
+        this.hashCount = hashCount;
+        this.expectedInsertions = expectedInsertions;
+    }
+
+    // expectedInsertions 개를 넣었을 때 오탐률이 falsePositiveRate 가 되는 크기로 만들되 maxBytes 를 넘지 않음
+    // maxBytes 에 걸리면 같은 개수에서 오탐률이 목표보다 높아짐 (expectedFalsePositiveRate 로 확인)
+    public static BloomFilter create(long expectedInsertions, double falsePositiveRate, long maxBytes) {
+        long n = Math.max(1, expectedInsertions);
+        long optimalBits = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        long maxBits = Math.min(maxBytes * 8, (long) Integer.MAX_VALUE * 64);
+        long bits = Math.max(64, Math.min(optimalBits, maxBits));
+        int hashes = (int) Math.max(1, Math.round((double) bits / n * Math.log(2)));
+        return new BloomFilter(bits, hashes, n);
+    }
+
+    public void put(String value) {
+        long hash1 = hash(value);
+        long hash2 = mix(hash1 ^ 0x9E3779B97F4A7C15L);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(hash1 + i * hash2, bitCount);
+            setBit(bit);
+        }
+        insertions.increment();
+    }
+
+    public boolean mightContain(String value) {
+        long hash1 = hash(value);
+        long hash2 = mix(hash1 ^ 0x9E3779B97F4A7C15L);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(hash1 + i * hash2, bitCount);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // 지금까지 넣은 개수 기준 예상 오탐률 (1 - e^(-kn/m))^k
+    public double expectedFalsePositiveRate() {
+        return Math.pow(1 - Math.exp(-hashCount * (double) insertions.sum() / bitCount), hashCount);
+    }
+
+    // 처음 잡은 예상 개수를 넘겨서 오탐률이 목표보다 나빠졌는지
+    public boolean isSaturated() {
+        return insertions.sum() > expectedInsertions;
+    }
+
+    public long getInsertions() {
+        return insertions.sum();
+    }
+
+    public long getBitCount() {
+        return bitCount;
+    }
+
+    public int getHashCount() {
+        return hashCount;
+    }
+
+    private void setBit(long bit) {
+        int index = (int) (bit >>> 6);
+        long mask = 1L << bit;
+        long current;
+        do {
+            current = words.get(index);
+            if ((current & mask) != 0) {
+                return;
+            }
+        } while (!words.compareAndSet(index, current, current | mask));
+    }
+
+    // FNV-1a 64 + murmur3 finalizer
+    private static long hash(String value) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b;
+            h *= 0x100000001b3L;
+        }
+        return mix(h);
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,81 @@
+package study.datajpa.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+// Page 조회 시 매번 실행되는 count 쿼리 결과를 ttl 동안 재사용
+// member 가 insert/delete 되거나 bulk 연산이 일어나면 그 트랜잭션이 커밋된 뒤 전부 무효화
+// 커밋 전에 지우면 커밋 전까지 다른 요청이 옛 count 를 다시 채워 넣으므로 커밋 후에 지움
+// member 변경이 아직 커밋되지 않은 트랜잭션 안에서 계산한 count 는 다른 요청에게 보이면 안 되므로 저장하지 않음
+@Component
+public class MemberCountCache {
+
+    private final Map<String, CachedCount> counts = new ConcurrentHashMap<>();
+    // count 를 계산하는 도중 무효화가 일어나면 그 결과는 이미 오래된 값이므로 저장하지 않기 위한 세대 번호
+    private final AtomicLong generation = new AtomicLong();
+    private final long ttlNanos;
+
+    public MemberCountCache(@Value("${app.count-cache.ttl:10s}") Duration ttl) {
+        this.ttlNanos = ttl.toNanos();
+    }
+
+    public long get(String key, LongSupplier counter) {
+        long now = System.nanoTime();
+        CachedCount cached = counts.get(key);
+        if (cached != null && now - cached.loadedAt() < ttlNanos) {
+            return cached.count();
+        }
+
+        if (hasPendingWrites()) {
+            return counter.getAsLong();
+        }
+        long loadedGeneration = generation.get();
+        long count = counter.getAsLong();
+        // count 쿼리 직전의 자동 flush 로 이 트랜잭션에 member 변경이 생겼을 수도 있으므로 다시 확인
+        if (generation.get() == loadedGeneration && !hasPendingWrites()) {
+            counts.put(key, new CachedCount(count, now));
+        }
+        return count;
+    }
+
+    // 트랜잭션 안이면 커밋된 뒤에 무효화 (롤백되면 캐시된 값이 그대로 맞으므로 두면 됨), 밖이면 바로
+    public void invalidateOnCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidateAll();
+            return;
+        }
+        if (!hasPendingWrites()) {
+            TransactionSynchronizationManager.registerSynchronization(new InvalidateOnCommit());
+        }
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        counts.clear();
+    }
+
+    // REQUIRES_NEW 로 새 트랜잭션이 열리면 바깥 트랜잭션의 synchronization 은 보류되므로 트랜잭션마다 따로 판단됨
+    private boolean hasPendingWrites() {
+        return TransactionSynchronizationManager.isSynchronizationActive()
+                && TransactionSynchronizationManager.getSynchronizations().stream()
+                .anyMatch(synchronization -> synchronization instanceof InvalidateOnCommit);
+    }
+
+    private class InvalidateOnCommit implements TransactionSynchronization {
+        @Override
+        public void afterCommit() {
+            invalidateAll();
+        }
+    }
+
+    private record CachedCount(long count, long loadedAt) {
+    }
+}
@@ -0,0 +1,23 @@
+package study.datajpa.cache;
+
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.annotation.AfterReturning;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+// bulk 연산은 영속성 컨텍스트와 Hibernate 이벤트를 거치지 않고 DB 에 바로 반영되므로
+// 리포지토리 메서드 호출 자체를 기준으로 count 캐시를 무효화 (호출한 트랜잭션이 있으면 커밋된 뒤)
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class MemberCountInvalidationAspect {
+
+    private final MemberCountCache memberCountCache;
+
+    @AfterReturning("execution(* study.datajpa.repository.MemberRepository.bulk*(..))" +
+            " || execution(* study.datajpa.repository.MemberRepository.*InBatch(..))" +
+            " || execution(* study.datajpa.repository.MemberJpaRepository.bulk*(..))")
+    public void invalidate() {
+        memberCountCache.invalidateOnCommit();
+    }
+}
@@ -0,0 +1,53 @@
+package study.datajpa.cache;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+import study.datajpa.entity.Member;
+
+// Member insert/delete 가 실제로 DB 에 반영(flush)되면 그 트랜잭션이 커밋된 뒤 count 캐시를 무효화
+// 엔티티에 리스너를 붙이지 않고 Hibernate 이벤트에 등록하기 때문에 em.persist 를 직접 호출해도 잡힘
+@Component
+@RequiredArgsConstructor
+public class MemberCountInvalidationListener implements PostInsertEventListener, PostDeleteEventListener {
+
+    private final EntityManagerFactory emf;
+    private final MemberCountCache memberCountCache;
+
+    @PostConstruct
+    public void register() {
+        EventListenerRegistry registry = emf.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, this);
+        registry.appendListeners(EventType.POST_DELETE, this);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof Member) {
+            memberCountCache.invalidateOnCommit();
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof Member) {
+            memberCountCache.invalidateOnCommit();
+        }
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+}
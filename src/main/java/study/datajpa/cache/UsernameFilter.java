@@ -0,0 +1,203 @@
+package study.datajpa.cache;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.event.EventListener;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+// 존재하지 않는 username 조회를 DB 까지 보내지 않기 위한 username Bloom filter
+// 시작할 때 member 의 username 을 스트리밍으로 읽어 채우고, 이후 insert/username 변경은 UsernameFilterListener 가 추가
+// 만들어지기 전이나 비활성화 상태에서는 항상 "있을 수도 있음"을 반환하므로 조회 결과가 달라지지 않음
+@Slf4j
+@Component
+@EnableConfigurationProperties(UsernameFilterProperties.class)
+public class UsernameFilter {
+
+    private final EntityManager em;
+    private final EntityManagerFactory emf;
+    private final TransactionTemplate readOnlyTx;
+    private final UsernameFilterProperties properties;
+
+    private volatile BloomFilter active;
+    // rebuild 중에 들어온 username 은 새 필터에도 넣어야 교체 후 빠지지 않음
+    private volatile BloomFilter building;
+    // rebuild 를 시작한 횟수, flush 와 커밋 사이에 rebuild 가 시작됐는지 판단
+    private final AtomicLong rebuilds = new AtomicLong();
+
+    private final LongAdder shortCircuited = new LongAdder();
+    private final LongAdder passedThrough = new LongAdder();
+    private final LongAdder falsePositives = new LongAdder();
+
+    public UsernameFilter(EntityManager em, EntityManagerFactory emf,
+                          PlatformTransactionManager transactionManager, UsernameFilterProperties properties) {
+        this.em = em;
+        this.emf = emf;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.properties = properties;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        if (properties.isEnabled()) {
+            rebuild();
+        }
+    }
+
+    // member 전체를 다시 읽어 새 필터를 만든 뒤 교체 - 삭제된 username 정리나 예상 개수 초과 시 사용
+    // flush 때 옛 필터에만 들어가고 커밋이 새 필터의 스냅샷보다 늦은 username 은 어느 쪽에도 없게 되므로
+    // add 가 커밋 후에 같은 username 을 한번 더 넣음 (그 사이 rebuild 가 시작됐을 때만)
+    public synchronized void rebuild() {
+        long start = System.nanoTime();
+        rebuilds.incrementAndGet();
+        readOnlyTx.executeWithoutResult(status -> {
+            long count = em.createQuery("select count(m) from Member m", Long.class).getSingleResult();
+            long expected = Math.max(properties.getExpectedInsertions(), count * 2);
+            BloomFilter filter = BloomFilter.create(expected, properties.getFalsePositiveRate(),
+                    properties.getMaxMemory().toBytes());
+            building = filter;
+            try (Stream<String> usernames = em.createQuery("select m.username from Member m", String.class)
+                    .setHint(HibernateHints.HINT_FETCH_SIZE, properties.getFetchSize())
+                    .setHint(HibernateHints.HINT_READ_ONLY, true)
+                    .getResultStream()) {
+                usernames.forEach(username -> {
+                    if (username != null) {
+                        filter.put(username);
+                    }
+                });
+            }
+            active = filter;
+            building = null;
+            log.info("username filter built: {} names, {} bits, {} hashes, expected fpp {} in {} ms",
+                    filter.getInsertions(), filter.getBitCount(), filter.getHashCount(),
+                    String.format("%.4f", filter.expectedFalsePositiveRate()), (System.nanoTime() - start) / 1_000_000);
+        });
+    }
+
+    // 트랜잭션 안(flush 시점)이면 커밋 후에 다시 확인해서, 그 사이 rebuild 가 시작됐으면 교체된/만들고 있는 필터에도 넣음
+    public void add(String username) {
+        if (username == null) {
+            return;
+        }
+        put(username);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            addedInTransaction().add(username);
+        }
+    }
+
+    private void put(String username) {
+        BloomFilter current = active;
+        if (current != null) {
+            current.put(username);
+        }
+        BloomFilter pending = building;
+        if (pending != null) {
+            pending.put(username);
+        }
+    }
+
+    // 스프링 트랜잭션 동기화 없이 직접 커밋하는 쪽(StatelessSession 적재 등)용, add 와 같은 순서를 호출한 쪽이 지킴
+    // 커밋 전에 넣고 돌려받은 값을 커밋 후 afterCommit 에 넘기면, 그 사이 rebuild 가 시작됐을 때 다시 넣음
+    public long addBeforeCommit(Collection<String> usernames) {
+        long rebuildsBeforeCommit = rebuilds.get();
+        usernames.forEach(this::add);
+        return rebuildsBeforeCommit;
+    }
+
+    public void afterCommit(Collection<String> usernames, long rebuildsBeforeCommit) {
+        if (rebuilds.get() != rebuildsBeforeCommit || building != null) {
+            usernames.stream().filter(Objects::nonNull).forEach(this::put);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<String> addedInTransaction() {
+        List<String> usernames = (List<String>) TransactionSynchronizationManager.getResource(this);
+        if (usernames != null) {
+            return usernames;
+        }
+        List<String> added = new ArrayList<>();
+        long rebuildsAtFlush = rebuilds.get();
+        TransactionSynchronizationManager.bindResource(this, added);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                if (rebuilds.get() != rebuildsAtFlush || building != null) {
+                    added.forEach(UsernameFilter.this::put);
+                }
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(UsernameFilter.this);
+            }
+        });
+        return added;
+    }
+
+    // false 면 해당 username 의 member 는 확실히 없음
+    // 현재 스레드의 영속성 컨텍스트에 엔티티가 올라와 있으면 아직 flush 되지 않은 저장/변경이 있을 수 있으므로 판단하지 않음
+    public boolean mightExist(String username) {
+        BloomFilter current = active;
+        if (current == null || username == null || hasManagedEntities()) {
+            passedThrough.increment();
+            return true;
+        }
+        if (current.mightContain(username)) {
+            passedThrough.increment();
+            return true;
+        }
+        shortCircuited.increment();
+        return false;
+    }
+
+    // 필터는 통과했지만 DB 에도 없었던 경우
+    public void recordFalsePositive() {
+        falsePositives.increment();
+    }
+
+    public UsernameFilterStatistics statistics() {
+        BloomFilter current = active;
+        return new UsernameFilterStatistics(
+                current != null,
+                shortCircuited.sum(),
+                passedThrough.sum(),
+                falsePositives.sum(),
+                current != null ? current.getInsertions() : 0,
+                current != null ? current.getBitCount() / 8 : 0,
+                current != null ? current.expectedFalsePositiveRate() : 0,
+                current != null && current.isSaturated());
+    }
+
+    private boolean hasManagedEntities() {
+        EntityManagerHolder holder = (EntityManagerHolder) TransactionSynchronizationManager.getResource(emf);
+        if (holder == null) {
+            return false;
+        }
+        return holder.getEntityManager().unwrap(SessionImplementor.class)
+                .getPersistenceContextInternal().getNumberOfManagedEntities() > 0;
+    }
+
+    public record UsernameFilterStatistics(boolean ready, long shortCircuited, long passedThrough,
+                                           long falsePositives, long insertions, long bytes,
+                                           double expectedFalsePositiveRate, boolean saturated) {
+    }
+}
@@ -0,0 +1,54 @@
+package study.datajpa.cache;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+import study.datajpa.entity.Member;
+
+// member 가 insert 되거나 username 이 바뀌어 DB 에 반영(flush)될 때 username filter 에 추가
+// 커밋 전에 넣기 때문에 롤백되면 오탐이 하나 늘 뿐 조회 결과가 틀리지는 않음
+// 삭제는 Bloom filter 에서 뺄 수 없으므로 처리하지 않음 (UsernameFilter.rebuild 로 정리)
+@Component
+@RequiredArgsConstructor
+public class UsernameFilterListener implements PostInsertEventListener, PostUpdateEventListener {
+
+    private final EntityManagerFactory emf;
+    private final UsernameFilter usernameFilter;
+
+    @PostConstruct
+    public void register() {
+        EventListenerRegistry registry = emf.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, this);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof Member member) {
+            usernameFilter.add(member.getUsername());
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (event.getEntity() instanceof Member member) {
+            usernameFilter.add(member.getUsername());
+        }
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+}
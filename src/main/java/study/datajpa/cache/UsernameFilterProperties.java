@@ -0,0 +1,25 @@
+package study.datajpa.cache;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+@Getter @Setter
+@ConfigurationProperties("app.username-filter")
+public class UsernameFilterProperties {
+
+    private boolean enabled = true;
+
+    // 목표 오탐률 - 없는 username 인데 DB 까지 가는 비율
+    private double falsePositiveRate = 0.01;
+
+    // 필터 비트 배열의 최대 크기
+    private DataSize maxMemory = DataSize.ofMegabytes(8);
+
+    // 시작 시 member 수가 적어도 이만큼은 담을 수 있게 잡고, 실제 수의 2배 중 큰 값을 사용
+    private long expectedInsertions = 100_000;
+
+    // 시작 시 username 을 읽을 때 JDBC fetch size
+    private int fetchSize = 1_000;
+}
@@ -0,0 +1,59 @@
+package study.datajpa.cache;
+
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+// username 단건 조회 전에 username filter 를 확인해서 확실히 없는 이름이면 쿼리 없이 빈 결과를 반환
+// 반환 타입에 맞춰 Optional.empty() / 빈 List / false / null
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class UsernameLookupAspect {
+
+    private final UsernameFilter usernameFilter;
+
+    @Around("(execution(* study.datajpa.repository.MemberRepository.findOptionalByUsername(String))" +
+            " || execution(* study.datajpa.repository.MemberRepository.findMemberByUsername(String))" +
+            " || execution(* study.datajpa.repository.MemberRepository.findListByUsername(String))" +
+            " || execution(* study.datajpa.repository.MemberRepository.existsByUsername(String)))" +
+            " && args(username)")
+    public Object lookup(ProceedingJoinPoint joinPoint, String username) throws Throwable {
+        Class<?> returnType = ((MethodSignature) joinPoint.getSignature()).getReturnType();
+        if (!usernameFilter.mightExist(username)) {
+            return empty(returnType);
+        }
+        Object result = joinPoint.proceed();
+        if (isEmpty(result)) {
+            usernameFilter.recordFalsePositive();
+        }
+        return result;
+    }
+
+    private static Object empty(Class<?> returnType) {
+        if (returnType == Optional.class) {
+            return Optional.empty();
+        }
+        if (Collection.class.isAssignableFrom(returnType)) {
+            return List.of();
+        }
+        if (returnType == boolean.class || returnType == Boolean.class) {
+            return false;
+        }
+        return null;
+    }
+
+    private static boolean isEmpty(Object result) {
+        return result == null
+                || (result instanceof Optional<?> optional && optional.isEmpty())
+                || (result instanceof Collection<?> collection && collection.isEmpty())
+                || Boolean.FALSE.equals(result);
+    }
+}
@@ -0,0 +1,32 @@
+package study.datajpa.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import study.datajpa.datasource.RequestContextTaskDecorator;
+
+// 서로 독립적인 조회 여러 개를 동시에 실행하기 위한 전용 스레드 풀
+// 요청 스레드나 applicationTaskExecutor 와 분리해서, 조회가 몰려도 동시에 잡는 커넥션 수가 pool-size 를 넘지 않음
+@Configuration
+public class AsyncQueryConfig {
+
+    public static final String MEMBER_QUERY_EXECUTOR = "memberQueryExecutor";
+
+    @Bean(name = MEMBER_QUERY_EXECUTOR)
+    public ThreadPoolTaskExecutor memberQueryExecutor(
+            @Value("${app.async-query.pool-size:8}") int poolSize,
+            @Value("${app.async-query.queue-capacity:1000}") int queueCapacity,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("member-query-");
+        executor.setVirtualThreads(virtualThreads);
+        // 작업 스레드의 읽기도 요청한 클라이언트의 read-your-writes 를 따르도록 요청 속성을 넘김
+        executor.setTaskDecorator(new RequestContextTaskDecorator());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        return executor;
+    }
+}
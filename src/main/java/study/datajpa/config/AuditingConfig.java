@@ -0,0 +1,28 @@
+package study.datajpa.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.domain.AuditorAware;
+import study.datajpa.auditing.CachedClock;
+import study.datajpa.auditing.TransactionScopedAuditor;
+
+import java.time.Duration;
+
+// app.auditing.mode=fast 에서 쓰는 작성자/시계
+@Configuration
+public class AuditingConfig {
+
+    @Bean
+    public TransactionScopedAuditor transactionScopedAuditor(AuditorAware<String> auditorProvider) {
+        return new TransactionScopedAuditor(auditorProvider);
+    }
+
+    // clock-resolution 마다 깨어나는 스레드를 띄우므로 fast 모드에서만 만듦
+    @Bean
+    @ConditionalOnProperty(name = "app.auditing.mode", havingValue = "fast")
+    public CachedClock cachedClock(@Value("${app.auditing.clock-resolution:10ms}") Duration resolution) {
+        return new CachedClock(resolution);
+    }
+}
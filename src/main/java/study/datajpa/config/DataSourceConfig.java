@@ -0,0 +1,79 @@
+package study.datajpa.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import study.datajpa.datasource.BulkheadDataSource;
+import study.datajpa.datasource.BulkheadProperties;
+import study.datajpa.datasource.MeteredDataSource;
+import study.datajpa.datasource.ReplicaDataSourceProperties;
+import study.datajpa.datasource.ReplicationRoutingDataSource;
+import study.datajpa.monitoring.QueryMetrics;
+import study.datajpa.monitoring.SlowQueryLog;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+// primary(spring.datasource) + 복제본(app.datasource.replicas)을 묶어 트랜잭션 readOnly 여부로 라우팅
+@Configuration
+@EnableConfigurationProperties({ReplicaDataSourceProperties.class, BulkheadProperties.class})
+public class DataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicationRoutingDataSource replicationRoutingDataSource(HikariDataSource primaryDataSource,
+                                                                     ReplicaDataSourceProperties properties) {
+        List<DataSource> replicas = new ArrayList<>();
+        for (int i = 0; i < properties.getReplicas().size(); i++) {
+            ReplicaDataSourceProperties.Replica replica = properties.getReplicas().get(i);
+            HikariDataSource dataSource = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(replica.getUrl())
+                    .username(replica.getUsername())
+                    .password(replica.getPassword())
+                    .build();
+            dataSource.setPoolName("replica-" + i);
+            dataSource.setReadOnly(true);
+            replicas.add(dataSource);
+        }
+        return new ReplicationRoutingDataSource(primaryDataSource, replicas, properties.getReadYourWritesWindow());
+    }
+
+    // JPA/JdbcTemplate 이 사용하는 DataSource
+    // 트랜잭션 시작 시점이 아니라 첫 SQL 을 실행할 때 커넥션을 얻어야 readOnly 여부를 보고 라우팅할 수 있음
+    // bulkhead 를 켜면 풀에 들어가기 전에 세마포어에서 먼저 줄을 섬
+    // 그 바깥의 MeteredDataSource 가 커넥션 획득 시간(bulkhead 대기 포함)과 SQL 실행 시간을 기록하고 느린 쿼리를 SlowQueryLog 로 넘김
+    // SlowQueryLog 의 EXPLAIN 은 MeteredDataSource 안쪽(bulkhead 포함)을 사용
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicationRoutingDataSource replicationRoutingDataSource,
+                                 HikariDataSource primaryDataSource,
+                                 ReplicaDataSourceProperties replicaProperties,
+                                 BulkheadProperties bulkheadProperties,
+                                 QueryMetrics queryMetrics,
+                                 SlowQueryLog slowQueryLog) {
+        DataSource target = replicationRoutingDataSource;
+        if (bulkheadProperties.isEnabled()) {
+            int permits = bulkheadProperties.getPermits() > 0
+                    ? bulkheadProperties.getPermits()
+                    : primaryDataSource.getMaximumPoolSize() * (1 + replicaProperties.getReplicas().size());
+            target = new BulkheadDataSource(target, permits, bulkheadProperties.getAcquireTimeout());
+        }
+        slowQueryLog.setExplainDataSource(target);
+        return new LazyConnectionDataSourceProxy(new MeteredDataSource(target, queryMetrics, slowQueryLog));
+    }
+}
@@ -0,0 +1,32 @@
+package study.datajpa.config;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import study.datajpa.monitoring.QueryCountInspector;
+import study.datajpa.monitoring.QueryCountInterceptor;
+
+// SQL 실행 수를 요청/메서드/테스트 단위로 세기 위한 설정
+@Configuration
+public class QueryCountConfig implements WebMvcConfigurer {
+
+    @Value("${app.query-budget.request-max:20}")
+    private long requestMax;
+
+    @Value("${app.query-budget.fail-on-exceed:false}")
+    private boolean failOnExceed;
+
+    @Bean
+    public HibernatePropertiesCustomizer queryCountCustomizer() {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, new QueryCountInspector());
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new QueryCountInterceptor(requestMax, failOnExceed));
+    }
+}
@@ -0,0 +1,57 @@
+package study.datajpa.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.net.URI;
+import java.time.Duration;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+// Hibernate 2차 캐시(애플리케이션 전체에서 공유하는 엔티티 캐시) 설정
+// 리전마다 최대 크기와 만료 시간을 두어 메모리가 무한정 늘어나지 않도록 Caffeine 을 JCache 구현체로 사용
+@Configuration
+public class SecondLevelCacheConfig {
+
+    // 엔티티의 @Cache(region = ...) 이름과 맞춰야 함
+    public static final String TEAM_REGION = "team";
+    public static final String MEMBER_REGION = "member";
+
+    // 기본 CacheManager(getCacheManager())는 JVM 전체에서 하나라서 컨텍스트가 닫힐 때 close 되면 다른 컨텍스트의 캐시까지 닫히고,
+    // 이미 만들어진 리전을 재사용하게 되어 설정(max-size, ttl)이 다른 컨텍스트끼리 섞임
+    // 컨텍스트마다 고유한 URI 로 자기 CacheManager 를 만들고, 빈이 소멸될 때 그것만 close
+    @Bean
+    public CacheManager hibernateCacheManager(
+            @Value("${app.second-level-cache.team.max-size:1000}") long teamMaxSize,
+            @Value("${app.second-level-cache.member.max-size:10000}") long memberMaxSize,
+            @Value("${app.second-level-cache.ttl:10m}") Duration ttl) {
+        CachingProvider provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        CacheManager cacheManager = provider.getCacheManager(
+                URI.create("hibernate-second-level-cache-" + UUID.randomUUID()), getClass().getClassLoader());
+        createRegion(cacheManager, TEAM_REGION, teamMaxSize, ttl);
+        createRegion(cacheManager, MEMBER_REGION, memberMaxSize, ttl);
+        return cacheManager;
+    }
+
+    // Hibernate 가 직접 CacheManager 를 만들지 않고 위에서 크기 제한을 건 캐시들을 사용하도록 넘겨줌
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+    }
+
+    private void createRegion(CacheManager cacheManager, String region, long maxSize, Duration ttl) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(OptionalLong.of(maxSize));
+        configuration.setExpireAfterWrite(OptionalLong.of(ttl.toNanos()));
+        configuration.setStatisticsEnabled(true);
+        cacheManager.createCache(region, configuration);
+    }
+}
@@ -0,0 +1,49 @@
+package study.datajpa.controller;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import study.datajpa.cache.UsernameFilter;
+import study.datajpa.config.SecondLevelCacheConfig;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequiredArgsConstructor
+public class CacheStatisticsController {
+
+    private final EntityManagerFactory emf;
+    private final UsernameFilter usernameFilter;
+
+    // 2차 캐시 리전별 hit/miss/put 통계
+    @GetMapping("/monitoring/cache")
+    public Map<String, Map<String, Long>> cacheStatistics(){
+        Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        Map<String, Map<String, Long>> result = new LinkedHashMap<>();
+        for (String region : List.of(SecondLevelCacheConfig.TEAM_REGION, SecondLevelCacheConfig.MEMBER_REGION)) {
+            CacheRegionStatistics regionStatistics = statistics.getCacheRegionStatistics(region);
+            if (regionStatistics == null) {
+                continue;
+            }
+            Map<String, Long> values = new LinkedHashMap<>();
+            values.put("hit", regionStatistics.getHitCount());
+            values.put("miss", regionStatistics.getMissCount());
+            values.put("put", regionStatistics.getPutCount());
+            values.put("size", regionStatistics.getElementCountInMemory());
+            result.put(region, values);
+        }
+        return result;
+    }
+
+    // username filter 로 쿼리 없이 끝낸 조회 수(shortCircuited), DB 까지 간 조회 수(passedThrough)와 그 중 오탐 수
+    @GetMapping("/monitoring/username-filter")
+    public UsernameFilter.UsernameFilterStatistics usernameFilterStatistics(){
+        return usernameFilter.statistics();
+    }
+}
@@ -0,0 +1,68 @@
+package study.datajpa.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import study.datajpa.ingest.BulkIngestor;
+import study.datajpa.ingest.IngestFormat;
+import study.datajpa.ingest.IngestProgress;
+import study.datajpa.ingest.IngestResult;
+import study.datajpa.ingest.IngestionFailedException;
+
+import java.io.InputStream;
+import java.util.List;
+import java.util.function.Supplier;
+
+@RestController
+@RequiredArgsConstructor
+public class IngestController {
+
+    private final BulkIngestor bulkIngestor;
+
+    // curl -X POST --data-binary @members.csv 'http://localhost:8080/members/import?format=csv&auditStamp=true'
+    // 요청 본문을 읽는 대로 적재하므로 파일 전체를 메모리에 올리지 않음
+    @PostMapping("/members/import")
+    public IngestResult importMembers(InputStream body,
+                                      @RequestParam(value = "format", defaultValue = "ndjson") String format,
+                                      @RequestParam(value = "auditStamp", defaultValue = "false") boolean auditStamp){
+        IngestFormat ingestFormat = format(format);
+        return ingest(() -> bulkIngestor.ingestMembers(body, ingestFormat, auditStamp));
+    }
+
+    @PostMapping("/items/import")
+    public IngestResult importItems(InputStream body,
+                                    @RequestParam(value = "format", defaultValue = "ndjson") String format){
+        IngestFormat ingestFormat = format(format);
+        return ingest(() -> bulkIngestor.ingestItems(body, ingestFormat));
+    }
+
+    // 진행 중인 적재의 파싱/커밋 행 수와 처리량 (누적 값은 /actuator/metrics/app.ingest.rows)
+    @GetMapping("/monitoring/ingest")
+    public List<IngestProgress> running(){
+        return bulkIngestor.getRunning();
+    }
+
+    private static IngestFormat format(String format) {
+        try {
+            return IngestFormat.valueOf(format.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "unsupported format: " + format, e);
+        }
+    }
+
+    // 입력 오류(파싱 실패)는 400, 그 외 insert 실패는 그대로 500
+    private static IngestResult ingest(Supplier<IngestResult> ingestion) {
+        try {
+            return ingestion.get();
+        } catch (IngestionFailedException e) {
+            if (e.getCause() instanceof IllegalArgumentException) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+            }
+            throw e;
+        }
+    }
+}
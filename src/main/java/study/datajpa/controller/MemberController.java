@@ -1,23 +1,52 @@
 package study.datajpa.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import study.datajpa.dto.CursorResult;
 import study.datajpa.dto.MemberDto;
+import study.datajpa.dto.MemberSummary;
 import study.datajpa.entity.Member;
+import study.datajpa.monitoring.QueryBudget;
+import study.datajpa.repository.CountMode;
+import study.datajpa.repository.MemberCursor;
 import study.datajpa.repository.MemberRepository;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
 @RestController
 @RequiredArgsConstructor
 public class MemberController {
 
     private final MemberRepository memberRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final ObjectMapper objectMapper;
+
+    @Value("${app.export.fetch-size:500}")
+    private int exportFetchSize;
 
+    @QueryBudget(max = 1)
     @GetMapping("/members/{id}")
     public String findMember(@PathVariable("id") Long id){
         Member member = memberRepository.findById(id).get();
@@ -36,20 +65,110 @@ public class MemberController {
     // 기본 디폴트값은 20개로 잡혀있고 기본값을 변경하고싶으면 yaml 파일을 변경해서 적용 가능
     // 매개변수로 파라미터값을 5로 설정하면 이 값이 우선권을 가짐
     // 또한 반환타입을 api를 get 처럼 url로 노출해버리는건 매우 위험함
+    // totalElements 는 캐시된 count 를 쓰고, estimatedTotal=true 면 DB 통계의 추정치를 사용
+    // 엔티티 대신 id, username, team 이름만 DTO 로 바로 조회 (영속성 컨텍스트/스냅샷 없음)
+    // 페이지 내용 1번 + (캐시 miss 시) count 1번
+    @QueryBudget(max = 2)
     @GetMapping("/members")
-    public Page<MemberDto> list(@PageableDefault(size=5) Pageable pageable){
+    public Page<MemberDto> list(@PageableDefault(size=5) Pageable pageable,
+                                @RequestParam(value = "estimatedTotal", defaultValue = "false") boolean estimatedTotal){
         // Page<Member> page = memberRepository.findAll(pageable);
         // 기존 방식인 page 를 그대로 return 할 경우 해당 정보에 대한 모든 데이터들이 조회되어 전달됨(json 으로 조회 가능)
         // 하지만 map 을 사용하면 해당 데이터 중 필요한 값만 조회하여 전달하기 때문에 안전함
         // Page<MemberDto> map = page.map(member -> new MemberDto(member.getId(), member.getUsername(), null));
-        return memberRepository.findAll(pageable)
-                .map(MemberDto::new);
+        return memberRepository.findMemberDtoPage(pageable, estimatedTotal ? CountMode.ESTIMATED : CountMode.CACHED);
+    }
+
+    // keyset(seek) 페이징 모드 - cursor 파라미터가 있으면 이쪽으로 매핑됨
+    // 첫 페이지: http://localhost:8080/members?cursor=&size=5&sortKey=username&direction=asc
+    // 다음 페이지: 응답의 nextCursor 를 그대로 cursor 로 넘기면 됨
+    // offset 방식은 뒤쪽 페이지로 갈수록 건너뛰는 행이 많아져 느려지지만 keyset 은 페이지 위치와 무관하게 일정함
+    @GetMapping(value = "/members", params = "cursor")
+    public CursorResult<MemberDto> listByCursor(@RequestParam("cursor") String cursor,
+                                                @RequestParam(value = "size", defaultValue = "5") int size,
+                                                @RequestParam(value = "sortKey", defaultValue = "id") String sortKey,
+                                                @RequestParam(value = "direction", defaultValue = "asc") String direction){
+        if (size < 1) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "size must be positive");
+        }
+
+        MemberCursor memberCursor;
+        try {
+            memberCursor = cursor.isEmpty()
+                    ? MemberCursor.first(MemberCursor.SortKey.from(sortKey), Sort.Direction.fromString(direction))
+                    : MemberCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+
+        Slice<Member> slice = memberRepository.findMemberKeyset(memberCursor, size);
+        List<Member> content = slice.getContent();
+        String nextCursor = slice.hasNext()
+                ? memberCursor.next(content.get(content.size() - 1)).encode()
+                : null;
+        return new CursorResult<>(slice.map(MemberDto::new).getContent(), nextCursor, slice.hasNext());
+    }
+
+    // 서로 의존하지 않는 세 조회를 memberQueryExecutor 에서 동시에 실행
+    // 응답 시간이 세 조회의 합이 아니라 가장 느린 조회 하나 정도가 됨
+    // CompletableFuture 를 반환하면 결과를 기다리는 동안 요청 스레드도 반납됨
+    @GetMapping("/members/summary")
+    public CompletableFuture<MemberSummary> summary(){
+        CompletableFuture<List<MemberDto>> members = memberRepository.findMemberDtoAsync();
+        CompletableFuture<List<String>> usernames = memberRepository.findUsernameListAsync();
+        CompletableFuture<Long> total = memberRepository.countAsync();
+        return CompletableFuture.allOf(members, usernames, total)
+                .thenApply(done -> new MemberSummary(members.join(), usernames.join(), total.join()));
+    }
+
+    // 전체 member 를 NDJSON(한 줄에 JSON 하나)으로 내려줌
+    // 행을 읽는 대로 바로 응답에 쓰기 때문에 member 수와 상관없이 메모리 사용량이 일정함
+    // StreamingResponseBody 는 컨트롤러 반환 이후 별도 스레드에서 실행되므로 트랜잭션을 그 안에서 직접 열어야 함
+    @GetMapping(value = "/members/export", produces = "application/x-ndjson")
+    public StreamingResponseBody export(){
+        return out -> {
+            TransactionTemplate readOnlyTx = new TransactionTemplate(transactionManager);
+            readOnlyTx.setReadOnly(true);
+            readOnlyTx.executeWithoutResult(status -> {
+                try (Stream<MemberDto> stream = memberRepository.streamMemberDto(exportFetchSize)) {
+                    int[] written = {0};
+                    stream.forEach(dto -> {
+                        writeLine(out, dto);
+                        // fetchSize 만큼 쓸 때마다 클라이언트로 밀어냄
+                        if (++written[0] % exportFetchSize == 0) {
+                            flush(out);
+                        }
+                    });
+                }
+            });
+            out.flush();
+        };
+    }
+
+    private void writeLine(OutputStream out, MemberDto dto) {
+        try {
+            out.write(objectMapper.writeValueAsBytes(dto));
+            out.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void flush(OutputStream out) {
+        try {
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 
     @PostConstruct
     public void init(){
+        // save 를 100번 호출하면 트랜잭션과 insert 가 100번 일어나므로 한번에 배치로 저장
+        List<Member> members = new ArrayList<>();
         for (int i=0; i<100; i++) {
-            memberRepository.save(new Member("user" + i, i));
+            members.add(new Member("user" + i, i));
         }
+        memberRepository.saveAllBatched(members);
     }
 }
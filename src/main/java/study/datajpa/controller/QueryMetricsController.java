@@ -0,0 +1,85 @@
+package study.datajpa.controller;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import study.datajpa.monitoring.QueryMetrics;
+import study.datajpa.monitoring.SlowQueryLog;
+
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@RestController
+@RequiredArgsConstructor
+public class QueryMetricsController {
+
+    private final MeterRegistry registry;
+    private final QueryMetrics queryMetrics;
+    private final SlowQueryLog slowQueryLog;
+
+    // 리포지토리 메서드별, SQL 모양별 지연시간(ms)과 평균 반환 행 수, 커넥션 획득 시간
+    // sample-rate 비율로 기록하므로 count 는 샘플링된 호출 수
+    @GetMapping("/monitoring/queries")
+    public Map<String, Object> queries(){
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("sampleRate", queryMetrics.getSampleRate());
+        result.put("repositories", timers(QueryMetrics.REPOSITORY_TIMER, QueryMetrics.REPOSITORY_ROWS, "repository", "method"));
+        result.put("sql", timers(QueryMetrics.SQL_TIMER, QueryMetrics.SQL_ROWS, "sql"));
+        result.put("connectionAcquire", timers(QueryMetrics.CONNECTION_ACQUIRE_TIMER, null, "pool"));
+        return result;
+    }
+
+    // threshold 를 넘은 최근 SQL (최신 순), select 는 EXPLAIN ANALYZE 계획 포함
+    @GetMapping("/monitoring/slow-queries")
+    public Map<String, Object> slowQueries(){
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", slowQueryLog.isEnabled());
+        result.put("thresholdMs", slowQueryLog.getProperties().getThreshold().toMillis());
+        result.put("capacity", slowQueryLog.getProperties().getCapacity());
+        result.put("total", slowQueryLog.getTotal());
+        result.put("explained", slowQueryLog.getExplained());
+        result.put("explainSkipped", slowQueryLog.getExplainSkipped());
+        result.put("queries", slowQueryLog.getEntries());
+        return result;
+    }
+
+    // 느린 순(p99)으로 정렬
+    private List<Map<String, Object>> timers(String timerName, String rowsName, String... tagKeys) {
+        return registry.find(timerName).timers().stream()
+                .map(timer -> {
+                    Map<String, Object> values = new LinkedHashMap<>();
+                    for (String tagKey : tagKeys) {
+                        values.put(tagKey, timer.getId().getTag(tagKey));
+                    }
+                    HistogramSnapshot snapshot = timer.takeSnapshot();
+                    values.put("count", snapshot.count());
+                    for (ValueAtPercentile percentile : snapshot.percentileValues()) {
+                        values.put("p" + Math.round(percentile.percentile() * 100), percentile.value(TimeUnit.MILLISECONDS));
+                    }
+                    values.put("max", snapshot.max(TimeUnit.MILLISECONDS));
+                    if (rowsName != null) {
+                        DistributionSummary rows = rowsSummary(rowsName, timer, tagKeys);
+                        values.put("rowsMean", rows != null ? rows.mean() : null);
+                    }
+                    return values;
+                })
+                .sorted(Comparator.comparingDouble((Map<String, Object> values) -> (double) values.getOrDefault("p99", 0.0)).reversed())
+                .toList();
+    }
+
+    private DistributionSummary rowsSummary(String rowsName, Timer timer, String... tagKeys) {
+        var search = registry.find(rowsName);
+        for (String tagKey : tagKeys) {
+            search = search.tag(tagKey, timer.getId().getTag(tagKey));
+        }
+        return search.summary();
+    }
+}
@@ -0,0 +1,19 @@
+package study.datajpa.datasource;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter @Setter
+@ConfigurationProperties("app.datasource.bulkhead")
+public class BulkheadProperties {
+
+    private boolean enabled = false;
+
+    // 동시에 빌려갈 수 있는 커넥션 수, 0 이면 primary + 복제본 풀 크기의 합
+    private int permits = 0;
+
+    private Duration acquireTimeout = Duration.ofSeconds(30);
+}
@@ -0,0 +1,151 @@
+package study.datajpa.datasource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import study.datajpa.monitoring.QueryMetrics;
+import study.datajpa.monitoring.SlowQueryLog;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+
+// p6spy 대신 커넥션 획득 시간과 SQL 모양별 실행 시간/반환 행 수를 QueryMetrics 로 기록하는 DataSource
+// 문장을 만들 때 샘플링 여부를 정하고, 샘플링되지 않은 문장은 원래 Statement 를 그대로 돌려주므로 추가 비용이 없음
+// 느린 쿼리 기록이 켜져 있으면 모든 문장의 실행 시간을 재고 바인딩 값을 들고 있다가 threshold 를 넘은 것만 SlowQueryLog 로 넘김
+public class MeteredDataSource extends DelegatingDataSource {
+
+    private final QueryMetrics metrics;
+    private final SlowQueryLog slowQueryLog;
+
+    public MeteredDataSource(DataSource target, QueryMetrics metrics, SlowQueryLog slowQueryLog) {
+        super(target);
+        this.metrics = metrics;
+        this.slowQueryLog = slowQueryLog;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        long start = System.nanoTime();
+        Connection connection = super.getConnection();
+        metrics.recordConnectionAcquire(System.nanoTime() - start);
+        return wrap(connection);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        long start = System.nanoTime();
+        Connection connection = super.getConnection(username, password);
+        metrics.recordConnectionAcquire(System.nanoTime() - start);
+        return wrap(connection);
+    }
+
+    private Connection wrap(Connection target) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    Object result = invoke(target, method, args);
+                    if (method.getName().equals("prepareStatement") || method.getName().equals("prepareCall")) {
+                        boolean sampled = metrics.sample();
+                        if (sampled || slowQueryLog.isEnabled()) {
+                            return meteredStatement((PreparedStatement) result, (String) args[0],
+                                    method.getReturnType(), sampled);
+                        }
+                    } else if (method.getName().equals("createStatement")) {
+                        boolean sampled = metrics.sample();
+                        if (sampled || slowQueryLog.isEnabled()) {
+                            return meteredStatement((Statement) result, null, Statement.class, sampled);
+                        }
+                    }
+                    return result;
+                });
+    }
+
+    // execute* 호출 시간을 재고, 반환된 ResultSet 은 next() 횟수를 세다가 close 될 때 행 수로 기록
+    // set*(index, value ...) 로 바인딩된 값은 느린 쿼리의 EXPLAIN ANALYZE 를 위해서만 보관
+    private Object meteredStatement(Statement target, String preparedSql, Class<?> type, boolean sampled) {
+        Object[][] parameters = {new Object[8]};
+        return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            String name = method.getName();
+            if (preparedSql != null && name.startsWith("set") && args != null && args.length >= 2
+                    && args[0] instanceof Integer index) {
+                bind(parameters, index, name.equals("setNull") ? null : args[1]);
+            } else if (name.equals("clearParameters")) {
+                Arrays.fill(parameters[0], null);
+            }
+            if (!name.startsWith("execute")) {
+                return invoke(target, method, args);
+            }
+            String sql = preparedSql != null ? preparedSql : (args != null && args.length > 0 ? (String) args[0] : null);
+            long start = System.nanoTime();
+            Object result = invoke(target, method, args);
+            long elapsed = System.nanoTime() - start;
+            if (sql == null) {
+                return result;
+            }
+            // 문장이 재사용되면 바인딩 값이 바뀌므로 느린 경우에만 실행 시점의 값을 복사
+            SlowCall slowCall = slowQueryLog.isSlow(elapsed)
+                    ? new SlowCall(preparedSql != null ? parameters(parameters[0], sql) : new Object[0],
+                    SlowQueryLog.currentRepositoryMethod())
+                    : null;
+            if (result instanceof ResultSet resultSet && (sampled || slowCall != null)) {
+                return countingResultSet(resultSet, sql, elapsed, sampled, slowCall);
+            }
+            record(sql, elapsed, -1, sampled, slowCall);
+            return result;
+        });
+    }
+
+    private ResultSet countingResultSet(ResultSet target, String sql, long executeNanos, boolean sampled,
+                                        SlowCall slowCall) {
+        long[] rows = {0};
+        boolean[] recorded = {false};
+        return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[]{ResultSet.class},
+                (proxy, method, args) -> {
+                    Object result = invoke(target, method, args);
+                    if (method.getName().equals("next") && Boolean.TRUE.equals(result)) {
+                        rows[0]++;
+                    } else if (method.getName().equals("close") && !recorded[0]) {
+                        recorded[0] = true;
+                        record(sql, executeNanos, rows[0], sampled, slowCall);
+                    }
+                    return result;
+                });
+    }
+
+    private void record(String sql, long nanos, long rows, boolean sampled, SlowCall slowCall) {
+        if (sampled) {
+            metrics.recordSql(sql, nanos, rows);
+        }
+        if (slowCall != null) {
+            slowQueryLog.record(sql, nanos, rows, slowCall.parameters(), slowCall.repositoryMethod());
+        }
+    }
+
+    private static void bind(Object[][] parameters, int index, Object value) {
+        if (index > parameters[0].length) {
+            parameters[0] = Arrays.copyOf(parameters[0], Math.max(index, parameters[0].length * 2));
+        }
+        parameters[0][index - 1] = value;
+    }
+
+    private static Object[] parameters(Object[] bound, String sql) {
+        int count = (int) sql.chars().filter(c -> c == '?').count();
+        return Arrays.copyOf(bound, count);
+    }
+
+    private record SlowCall(Object[] parameters, String repositoryMethod) {
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+}
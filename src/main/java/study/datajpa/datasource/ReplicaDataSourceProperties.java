@@ -0,0 +1,27 @@
+package study.datajpa.datasource;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter @Setter
+@ConfigurationProperties("app.datasource")
+public class ReplicaDataSourceProperties {
+
+    // 읽기 전용 트랜잭션을 나눠서 보낼 복제본들, 비어있으면 모든 요청이 primary 로 감
+    private List<Replica> replicas = new ArrayList<>();
+
+    // 같은 클라이언트(WriteSession)의 쓰기 트랜잭션이 커밋된 뒤 이 시간 동안은 읽기도 primary 에서 (복제 지연 대비)
+    private Duration readYourWritesWindow = Duration.ofSeconds(1);
+
+    @Getter @Setter
+    public static class Replica {
+        private String url;
+        private String username;
+        private String password;
+    }
+}
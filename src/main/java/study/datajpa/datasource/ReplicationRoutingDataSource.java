@@ -0,0 +1,98 @@
+package study.datajpa.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// @Transactional(readOnly = true) 트랜잭션은 복제본으로, 나머지(쓰기, bulk 수정, 락 조회)는 primary 로 보냄
+// 트랜잭션의 readOnly 여부는 실제 커넥션을 얻는 시점에 알 수 있으므로 반드시 LazyConnectionDataSourceProxy 로 감싸서 사용
+// 쓰기 직후의 읽기는 클라이언트별(WriteSession)로 read-your-writes-window 동안 primary 에서
+public class ReplicationRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    static final String PRIMARY = "primary";
+
+    private static final Object WRITE_TRACKING_KEY = new Object();
+
+    private final List<String> replicaKeys = new ArrayList<>();
+    private final List<DataSource> replicas;
+    private final Duration readYourWritesWindow;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    public ReplicationRoutingDataSource(DataSource primary, List<DataSource> replicas, Duration readYourWritesWindow) {
+        this.replicas = replicas;
+        this.readYourWritesWindow = readYourWritesWindow;
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (int i = 0; i < replicas.size(); i++) {
+            String key = "replica-" + i;
+            replicaKeys.add(key);
+            targets.put(key, replicas.get(i));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            trackWriteCommit();
+            return PRIMARY;
+        }
+        if (replicaKeys.isEmpty() || withinReadYourWritesWindow()) {
+            return PRIMARY;
+        }
+        // 복제본끼리는 라운드 로빈으로 분산
+        return replicaKeys.get(Math.floorMod(nextReplica.getAndIncrement(), replicaKeys.size()));
+    }
+
+    // 쓰기 트랜잭션이 커밋되면 그 클라이언트(WriteSession)의 시각을 기록해 두었다가, 복제가 따라잡기 전의 읽기는 primary 로 보냄
+    private void trackWriteCommit() {
+        if (readYourWritesWindow.isZero()
+                || !TransactionSynchronizationManager.isSynchronizationActive()
+                || TransactionSynchronizationManager.hasResource(WRITE_TRACKING_KEY)) {
+            return;
+        }
+        WriteSession session = WriteSession.current();
+        if (session == null) {
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(WRITE_TRACKING_KEY, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                session.committed(readYourWritesWindow);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(WRITE_TRACKING_KEY);
+            }
+        });
+    }
+
+    private boolean withinReadYourWritesWindow() {
+        if (readYourWritesWindow.isZero()) {
+            return false;
+        }
+        WriteSession session = WriteSession.current();
+        return session != null && session.wroteWithin(readYourWritesWindow);
+    }
+
+    @Override
+    public void close() throws Exception {
+        for (DataSource replica : replicas) {
+            if (replica instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+}
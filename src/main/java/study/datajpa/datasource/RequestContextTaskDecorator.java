@@ -0,0 +1,33 @@
+package study.datajpa.datasource;
+
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+// 요청 스레드의 요청 속성을 작업 스레드로 넘겨서, 작업 스레드의 읽기도 그 클라이언트의 WriteSession 을 보도록 함
+// 작업이 끝나면 작업 스레드의 원래 상태로 되돌리므로 풀 스레드에 요청이 남지 않음
+public class RequestContextTaskDecorator implements TaskDecorator {
+
+    @Override
+    public Runnable decorate(Runnable runnable) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return runnable;
+        }
+        // 작업 스레드끼리 따로 만들지 않도록 요청 스레드에서 먼저 만들어 둠
+        WriteSession.current();
+        return () -> {
+            RequestAttributes previous = RequestContextHolder.getRequestAttributes();
+            RequestContextHolder.setRequestAttributes(attributes);
+            try {
+                runnable.run();
+            } finally {
+                if (previous == null) {
+                    RequestContextHolder.resetRequestAttributes();
+                } else {
+                    RequestContextHolder.setRequestAttributes(previous);
+                }
+            }
+        };
+    }
+}
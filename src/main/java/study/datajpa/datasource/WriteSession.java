@@ -0,0 +1,82 @@
+package study.datajpa.datasource;
+
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Duration;
+
+// 클라이언트 하나의 마지막 쓰기 커밋 시각 (ReplicationRoutingDataSource 의 read-your-writes 판단용)
+// 스레드가 아니라 클라이언트에 붙어 있어야 다음 요청이 다른 톰캣 스레드에서 처리돼도 이어지고,
+// 같은 스레드를 이어서 쓰는 다른 클라이언트의 요청은 primary 에 묶이지 않음
+// - 요청마다 쿠키(last-write)에서 읽어 요청 속성으로 두고, 쓰기 트랜잭션이 커밋되면 갱신해서 쿠키로 돌려줌
+// - memberQueryExecutor 같은 작업 스레드에는 RequestContextTaskDecorator 가 요청 속성을 넘겨줌
+// - 요청 밖(배치, 스케줄러)에서는 추적하지 않으므로 쓴 직후 같은 데이터를 읽어야 하면 쓰기 트랜잭션 안에서 읽음
+public class WriteSession {
+
+    public static final String COOKIE = "last-write";
+    private static final String ATTRIBUTE = WriteSession.class.getName();
+
+    private volatile long lastWriteCommitMillis;
+
+    private WriteSession(long lastWriteCommitMillis) {
+        this.lastWriteCommitMillis = lastWriteCommitMillis;
+    }
+
+    // 현재 요청의 WriteSession, 요청 밖이거나 이미 끝난 요청이면 null
+    public static WriteSession current() {
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes)) {
+            return null;
+        }
+        try {
+            if (attributes.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) instanceof WriteSession session) {
+                return session;
+            }
+            WriteSession session = new WriteSession(lastWriteFromCookie(attributes.getRequest()));
+            attributes.setAttribute(ATTRIBUTE, session, RequestAttributes.SCOPE_REQUEST);
+            return session;
+        } catch (IllegalStateException e) {
+            // 요청이 끝난 뒤에도 돌고 있는 비동기 작업
+            return null;
+        }
+    }
+
+    public boolean wroteWithin(Duration window) {
+        return lastWriteCommitMillis > 0 && System.currentTimeMillis() - lastWriteCommitMillis < window.toMillis();
+    }
+
+    // 응답이 이미 나가기 시작했으면(스트리밍 응답) 쿠키는 못 붙이고 이 요청 안에서만 반영됨
+    void committed(Duration window) {
+        lastWriteCommitMillis = System.currentTimeMillis();
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes) {
+            HttpServletResponse response = attributes.getResponse();
+            if (response != null && !response.isCommitted()) {
+                Cookie cookie = new Cookie(COOKIE, Long.toString(lastWriteCommitMillis));
+                cookie.setPath("/");
+                cookie.setHttpOnly(true);
+                cookie.setMaxAge((int) Math.max(1, (window.toMillis() + 999) / 1000));
+                response.addCookie(cookie);
+            }
+        }
+    }
+
+    private static long lastWriteFromCookie(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return 0;
+        }
+        for (Cookie cookie : cookies) {
+            if (COOKIE.equals(cookie.getName())) {
+                try {
+                    return Long.parseLong(cookie.getValue());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 0;
+    }
+}
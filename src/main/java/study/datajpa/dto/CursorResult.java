@@ -0,0 +1,19 @@
+package study.datajpa.dto;
+
+import lombok.Getter;
+
+import java.util.List;
+
+// keyset 페이징 응답 - 전체 개수(count) 대신 다음 페이지를 조회할 불투명 커서를 내려줌
+@Getter
+public class CursorResult<T> {
+    private final List<T> content;
+    private final String nextCursor;
+    private final boolean hasNext;
+
+    public CursorResult(List<T> content, String nextCursor, boolean hasNext) {
+        this.content = content;
+        this.nextCursor = nextCursor;
+        this.hasNext = hasNext;
+    }
+}
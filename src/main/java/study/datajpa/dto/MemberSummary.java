@@ -0,0 +1,19 @@
+package study.datajpa.dto;
+
+import lombok.Getter;
+
+import java.util.List;
+
+// /members/summary 응답 - 서로 독립적인 세 조회 결과를 묶음
+@Getter
+public class MemberSummary {
+    private final List<MemberDto> members;
+    private final List<String> usernames;
+    private final long total;
+
+    public MemberSummary(List<MemberDto> members, List<String> usernames, long total) {
+        this.members = members;
+        this.usernames = usernames;
+        this.total = total;
+    }
+}
@@ -0,0 +1,9 @@
+package study.datajpa.dto;
+
+// 인터페이스 기반 projection - 쿼리의 select 별칭(id, username, teamName)과 getter 이름을 맞추면
+// Spring Data 가 조회 결과(Tuple)를 감싼 프록시를 만들어줌, 엔티티는 만들어지지 않음
+public interface MemberView {
+    Long getId();
+    String getUsername();
+    String getTeamName();
+}
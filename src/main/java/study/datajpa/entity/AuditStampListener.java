@@ -0,0 +1,73 @@
+package study.datajpa.entity;
+
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.auditing.AuditingHandler;
+import org.springframework.stereotype.Component;
+import study.datajpa.auditing.AuditingMode;
+import study.datajpa.auditing.CachedClock;
+import study.datajpa.auditing.TransactionScopedAuditor;
+
+import java.time.LocalDateTime;
+
+// BaseEntity, JpaBaseEntity 의 등록/수정 정보를 채우는 엔티티 리스너
+// Hibernate 가 스프링 빈으로 가져오기 때문에(SpringBeanContainer) 생성자 주입을 받을 수 있음
+// standard: 기존과 동일하게 AuditingHandler(@EnableJpaAuditing) 에 맡김
+// fast: 리플렉션 없이 엔티티의 stamp 메서드를 직접 호출하고, 작성자는 트랜잭션당 한번, 시각은 CachedClock 에서 읽음
+@Component
+public class AuditStampListener {
+
+    private final boolean fast;
+    private final ObjectProvider<AuditingHandler> auditingHandler;
+    private final TransactionScopedAuditor auditor;
+    private final CachedClock clock;
+
+    public AuditStampListener(@Value("${app.auditing.mode:standard}") AuditingMode mode,
+                              ObjectProvider<AuditingHandler> auditingHandler,
+                              TransactionScopedAuditor auditor,
+                              ObjectProvider<CachedClock> clock) {
+        this.fast = mode == AuditingMode.FAST;
+        this.auditingHandler = auditingHandler;
+        this.auditor = auditor;
+        // CachedClock 은 fast 모드에서만 빈으로 만들어짐
+        this.clock = fast ? clock.getObject() : null;
+    }
+
+    @PrePersist
+    public void prePersist(Object entity) {
+        if (entity instanceof BaseEntity base) {
+            if (fast) {
+                base.stampCreated(auditor.currentAuditor(), clock.now());
+            } else {
+                auditingHandler.getObject().markCreated(base);
+            }
+        } else if (entity instanceof JpaBaseEntity base) {
+            base.stampCreated(fast ? clock.now() : LocalDateTime.now());
+        }
+    }
+
+    @PreUpdate
+    public void preUpdate(Object entity) {
+        if (entity instanceof BaseEntity base) {
+            if (fast) {
+                base.stampModified(auditor.currentAuditor(), clock.now());
+            } else {
+                auditingHandler.getObject().markModified(base);
+            }
+        } else if (entity instanceof JpaBaseEntity base) {
+            base.stampModified(fast ? clock.now() : LocalDateTime.now());
+        }
+    }
+
+    // 엔티티 리스너가 호출되지 않는 StatelessSession 적재에서 직접 호출 (BulkIngestor)
+    // 작성자와 시각은 호출하는 쪽에서 한번 정해서 여러 엔티티에 같은 값을 넣음
+    public void stampCreated(Object entity, String auditor, LocalDateTime now) {
+        if (entity instanceof BaseEntity base) {
+            base.stampCreated(auditor, now);
+        } else if (entity instanceof JpaBaseEntity base) {
+            base.stampCreated(now);
+        }
+    }
+}
@@ -8,11 +8,11 @@ import org.springframework.data.annotation.CreatedBy;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedBy;
 import org.springframework.data.annotation.LastModifiedDate;
-import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
 import java.time.LocalDateTime;
 
-@EntityListeners(AuditingEntityListener.class)
+// app.auditing.mode 에 따라 AuditingHandler 또는 stamp 메서드로 채움 (AuditStampListener)
+@EntityListeners(AuditStampListener.class)
 @MappedSuperclass
 @Getter
 public class BaseEntity {
@@ -31,4 +31,16 @@ public class BaseEntity {
     @LastModifiedBy
     private String lastModifiedBy;
 
+    // fast 모드에서 AuditStampListener 가 리플렉션 없이 직접 호출
+    void stampCreated(String auditor, LocalDateTime now) {
+        createdDate = now;
+        lastModifiedDate = now;
+        createdBy = auditor;
+        lastModifiedBy = auditor;
+    }
+
+    void stampModified(String auditor, LocalDateTime now) {
+        lastModifiedDate = now;
+        lastModifiedBy = auditor;
+    }
 }
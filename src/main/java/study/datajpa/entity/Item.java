@@ -2,7 +2,9 @@ package study.datajpa.entity;
 
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
 import lombok.Getter;
 
 @Entity
@@ -12,6 +14,7 @@ public class Item {
     // GeneratedValue 는 jpa 에 등록(persist)을 하면 그 안에서 값이 들어감
     // 그 전까지 id 값이 안생김
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "item_seq_generator")
+    @SequenceGenerator(name = "item_seq_generator", sequenceName = "item_seq", allocationSize = 50)
     private Long id;
 }
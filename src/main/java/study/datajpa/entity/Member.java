@@ -2,20 +2,47 @@ package study.datajpa.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.Hibernate;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
+// Member.team 같은 to-one 연관관계는 Member 캐시 엔트리에 외래키로 들어가므로 Member 도 캐시해야
+// member 조회 -> team 프록시 초기화까지 DB 를 거치지 않음
+// bulk 수정 쿼리가 실행되면 Hibernate 가 member 리전 전체를 비움
+// username 으로 찾는 파생 쿼리들(findXxxByUsername, findByNames ...)과 age 조건(findByAge, bulkAgePlus)이 풀 스캔이 되지 않도록 인덱스 선언
+// (age, username) 은 age 로 거른 뒤 username 으로 정렬하는 페이지 조회를 정렬 없이 인덱스 순서대로 읽기 위함
+// (processed, member_id) 는 claimUnprocessed 가 미처리 행을 id 순으로 바로 찾기 위함
+// MemberQueryPlanTest 가 각 리포지토리 쿼리의 EXPLAIN 결과로 인덱스 사용 여부를 확인함
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_member_username", columnList = "username"),
+        @Index(name = "idx_member_age_username", columnList = "age, username"),
+        @Index(name = "idx_member_processed_id", columnList = "processed, member_id")
+})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "member")
 @Getter @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString(of = {"id","username","age"})
 public class Member extends BaseEntity{
 
+    // 시퀀스를 insert 마다 조회하지 않도록 allocationSize 만큼 id 를 미리 할당받아 메모리에서 나눠줌(pooled-lo)
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "member_seq_generator")
+    @SequenceGenerator(name = "member_seq_generator", sequenceName = "member_seq", allocationSize = 100)
     @Column(name="member_id")
     private Long id;
     private String username;
     private int age;
 
+    // 낙관적 락 - update 시 where version = ? 로 다른 트랜잭션이 먼저 수정했는지 확인하고 1 증가
+    // 먼저 수정된 경우 ObjectOptimisticLockingFailureException, 재시도는 OptimisticRetryExecutor 로
+    @Version
+    private Long version;
+
+    // 배치 작업 큐 - claimUnprocessed 로 가져간 뒤 처리가 끝나면 true
+    private boolean processed;
+
     // Member는 여러명이고 소속되는 팀은 하나이기 때문에 N대 1 - ManyToOne
     // Many이기 때문에 one 에 대한 컬럼을 조인해야됨
     // 실무에서는 지연 로딩으로 설정해야됨(조회 시 db 조회)
@@ -41,8 +68,23 @@ public class Member extends BaseEntity{
         }
     }
 
+    public void markProcessed(){
+        this.processed = true;
+    }
+
+    // 팀 인원(Team.memberCount)은 flush 시점에 TeamMemberCountListener 가 맞추므로
+    // 양방향 목록은 이미 로딩된 경우에만 맞추고 team 프록시나 지연 로딩 컬렉션을 초기화하지 않음
     public void changeTeam(Team team){
+        if (isMembersLoaded(this.team)) {
+            this.team.getMembers().remove(this);
+        }
         this.team = team;
-        team.getMembers().add(this);
+        if (isMembersLoaded(team)) {
+            team.getMembers().add(this);
+        }
+    }
+
+    private static boolean isMembersLoaded(Team team) {
+        return team != null && Hibernate.isInitialized(team) && Hibernate.isInitialized(team.getMembers());
     }
 }
@@ -0,0 +1,47 @@
+package study.datajpa.entity;
+
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// MemberScanner 작업에서 끝난 id 구간 하나 (작업 이름 + 구간 시작 id)
+// 구간의 처리 결과와 같은 트랜잭션으로 저장되므로, 이 행이 있으면 그 구간의 변경은 커밋된 것
+// 실패한 작업을 같은 이름으로 다시 실행하면 여기 기록된 구간은 건너뜀
+@Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_scan_checkpoint_job_chunk",
+        columnNames = {"job_name", "chunk_start"}))
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class ScanCheckpoint {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "scan_checkpoint_seq_generator")
+    @SequenceGenerator(name = "scan_checkpoint_seq_generator", sequenceName = "scan_checkpoint_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "job_name", nullable = false)
+    private String jobName;
+
+    // [chunkStart, chunkStart + chunkSize) 구간
+    @Column(name = "chunk_start", nullable = false)
+    private long chunkStart;
+
+    @Column(name = "chunk_size", nullable = false)
+    private int chunkSize;
+
+    // 구간 안에서 처리한 member 수
+    private long rows;
+
+    private LocalDateTime completedAt;
+
+    public ScanCheckpoint(String jobName, long chunkStart, int chunkSize, long rows, LocalDateTime completedAt) {
+        this.jobName = jobName;
+        this.chunkStart = chunkStart;
+        this.chunkSize = chunkSize;
+        this.rows = rows;
+        this.completedAt = completedAt;
+    }
+}
@@ -2,28 +2,57 @@ package study.datajpa.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.Fetch;
+import org.hibernate.annotations.FetchMode;
 
 import java.util.ArrayList;
 import java.util.List;
 
+// 읽기 위주인 Team 은 2차 캐시에 올려두고 조회 시 DB 대신 캐시에서 가져옴
+// READ_WRITE 전략은 저장/삭제 시 커밋 시점에 캐시 엔트리를 갱신하므로 별도의 무효화 코드가 필요 없음
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "team")
 @Getter @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString(of = {"id","name"})
 public class Team {
 
-    @Id @GeneratedValue
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "team_seq_generator")
+    @SequenceGenerator(name = "team_seq_generator", sequenceName = "team_seq", allocationSize = 50)
     @Column(name = "team_id")
     private Long id;
     private String name;
 
+    @Version
+    private Long version;
+
+    // members 를 초기화하지 않고 팀 인원을 알기 위한 비정규화 컬럼 (TeamMemberCountListener 가 유지)
+    // member insert/delete/팀 변경이 flush 될 때 member_count = member_count + ? 로 DB 에서 원자적으로 증감하고
+    // 엔티티를 통해서는 쓰지 않으므로(insertable/updatable = false) 값이 바뀌어도 team 의 dirty checking/@Version 에 걸리지 않음
+    @ColumnDefault("0")
+    @Column(name = "member_count", nullable = false, insertable = false, updatable = false)
+    private int memberCount;
+
     // 팀은 하나이고 member는 N이기 때문에 1대 다(항상 선언주체가 앞으로) - OneToMany
     // 외래키가 없는 쪽에 mappedBy를 지정해야됨
     // 현재 member쪽에서 team 을 참조하기 때문에 외래키는 member
+    // 팀 목록을 조회한 뒤 members 하나를 초기화하면, 처음 팀 목록을 조회한 쿼리를 서브쿼리로 써서
+    // 그 팀들의 members 를 한 번에 모두 가져옴 (팀 수와 상관없이 추가 쿼리 1번)
     @OneToMany(mappedBy = "team")
+    @Fetch(FetchMode.SUBSELECT)
     private List<Member> members=new ArrayList<>();
 
     public Team(String name) {
         this.name = name;
     }
+
+    // DB 에 반영된 증감을 이미 로딩된 엔티티에도 맞춤
+    void applyMemberCountDelta(int delta) {
+        memberCount += delta;
+    }
 }
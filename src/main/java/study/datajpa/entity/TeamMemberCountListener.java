@@ -0,0 +1,162 @@
+package study.datajpa.entity;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.engine.spi.EntityKey;
+import org.hibernate.engine.spi.PersistenceContext;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.AutoFlushEvent;
+import org.hibernate.event.spi.AutoFlushEventListener;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.FlushEvent;
+import org.hibernate.event.spi.FlushEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.WeakHashMap;
+
+// Team.memberCount 유지
+// member insert/delete/팀 변경 이벤트에서 팀별 증감만 모아두었다가 flush(자동 flush 포함)가 끝날 때
+// update team set member_count = member_count + ? 를 팀 id 순서로 배치 실행 (락 순서가 같아서 교착이 생기지 않음)
+// 같은 트랜잭션 안에서 실행되므로 롤백되면 함께 롤백되고, 동시에 수정해도 DB 가 증감을 직렬화하므로 잃어버리는 값이 없음
+// bulk 연산(*InBatch)은 이벤트가 없으므로 TeamMemberCountAspect 가 다시 셈
+@Component
+@RequiredArgsConstructor
+public class TeamMemberCountListener implements PostInsertEventListener, PostDeleteEventListener,
+        PostUpdateEventListener, FlushEventListener, AutoFlushEventListener {
+
+    private final EntityManagerFactory emf;
+
+    // flush 중에 모은 세션별 팀 증감, 예외로 flush 가 중단된 세션은 GC 될 때 함께 사라지도록 weak key
+    private final Map<SharedSessionContractImplementor, Map<Long, Integer>> pending =
+            Collections.synchronizedMap(new WeakHashMap<>());
+
+    private EntityPersister teamPersister;
+    private int teamPropertyIndex;
+
+    @PostConstruct
+    public void register() {
+        SessionFactoryImplementor factory = emf.unwrap(SessionFactoryImplementor.class);
+        teamPersister = factory.getMappingMetamodel().getEntityDescriptor(Team.class);
+        teamPropertyIndex = factory.getMappingMetamodel().getEntityDescriptor(Member.class)
+                .getEntityMetamodel().getPropertyIndex("team");
+
+        EventListenerRegistry registry = factory.getServiceRegistry().getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, this);
+        registry.appendListeners(EventType.POST_DELETE, this);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+        // 기본 flush 리스너 뒤에 실행되므로 member insert/update/delete 배치가 모두 나간 다음
+        registry.appendListeners(EventType.FLUSH, this);
+        registry.appendListeners(EventType.AUTO_FLUSH, this);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof Member member) {
+            add(event.getSession(), member.getTeam(), 1);
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof Member) {
+            add(event.getSession(), event.getDeletedState()[teamPropertyIndex], -1);
+        }
+    }
+
+    // 변경 전 상태(스냅샷)가 없는 update(준영속 엔티티 merge 없이 update 등)는 이전 팀을 알 수 없으므로 건너뜀
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (!(event.getEntity() instanceof Member) || event.getOldState() == null) {
+            return;
+        }
+        Long before = teamId(event.getOldState()[teamPropertyIndex]);
+        Long after = teamId(event.getState()[teamPropertyIndex]);
+        if (!Objects.equals(before, after)) {
+            add(event.getSession(), before, -1);
+            add(event.getSession(), after, 1);
+        }
+    }
+
+    @Override
+    public void onFlush(FlushEvent event) {
+        apply(event.getSession());
+    }
+
+    @Override
+    public void onAutoFlush(AutoFlushEvent event) {
+        apply(event.getSession());
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    private void add(SharedSessionContractImplementor session, Object team, int delta) {
+        Long teamId = team instanceof Long id ? id : teamId(team);
+        if (teamId == null) {
+            return;
+        }
+        pending.computeIfAbsent(session, s -> new HashMap<>()).merge(teamId, delta, Integer::sum);
+    }
+
+    private void apply(EventSource session) {
+        Map<Long, Integer> deltas = pending.remove(session);
+        if (deltas == null) {
+            return;
+        }
+        List<Map.Entry<Long, Integer>> changes = deltas.entrySet().stream()
+                .filter(change -> change.getValue() != 0)
+                .sorted(Map.Entry.comparingByKey())
+                .toList();
+        if (changes.isEmpty()) {
+            return;
+        }
+
+        session.doWork(connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(
+                    "update team set member_count = member_count + ? where team_id = ?")) {
+                for (Map.Entry<Long, Integer> change : changes) {
+                    ps.setInt(1, change.getValue());
+                    ps.setLong(2, change.getKey());
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+        });
+
+        PersistenceContext persistenceContext = session.getPersistenceContextInternal();
+        for (Map.Entry<Long, Integer> change : changes) {
+            if (persistenceContext.getEntity(new EntityKey(change.getKey(), teamPersister)) instanceof Team team) {
+                team.applyMemberCountDelta(change.getValue());
+            }
+        }
+
+        // 2차 캐시의 team 엔트리는 옛 member_count 를 들고 있으므로 지금 지우고 커밋 후에도 한번 더 지움
+        Runnable evict = () -> changes.forEach(change -> emf.getCache().evict(Team.class, change.getKey()));
+        evict.run();
+        session.getActionQueue().registerProcess((AfterTransactionCompletionProcess) (success, s) -> evict.run());
+    }
+
+    private static Long teamId(Object team) {
+        return team instanceof Team t ? t.getId() : null;
+    }
+}
@@ -0,0 +1,290 @@
+package study.datajpa.ingest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.stereotype.Component;
+import study.datajpa.cache.MemberCountCache;
+import study.datajpa.cache.UsernameFilter;
+import study.datajpa.entity.AuditStampListener;
+import study.datajpa.entity.Item;
+import study.datajpa.entity.Member;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+// CSV/NDJSON 을 읽어 Member/Item 을 StatelessSession 으로 대량 insert
+// - 호출한 스레드가 파싱해서 chunk-size 묶음으로 큐에 넣고, writer 스레드들이 묶음마다 트랜잭션 하나로 JDBC 배치 insert
+// - StatelessSession 은 영속성 컨텍스트/스냅샷/dirty checking/2차 캐시를 거치지 않고 엔티티 리스너와 이벤트 리스너도 호출하지 않음
+//   그래서 감사 필드(auditStamp), username filter, count 캐시는 여기서 직접 맞춰줌
+//   스프링 트랜잭션 동기화도 없으므로 username filter 는 커밋 전에 넣고 커밋 후에 그 사이 시작된 rebuild 에 다시 넣음
+// - 실패하면 남은 입력은 버리고 IngestionFailedException, 이미 커밋된 묶음은 남음
+@Slf4j
+@Component
+@EnableConfigurationProperties(IngestProperties.class)
+public class BulkIngestor {
+
+    public static final String ROWS_COUNTER = "app.ingest.rows";
+    public static final String CHUNK_TIMER = "app.ingest.chunk";
+
+    private static final List<Object> END = new ArrayList<>();
+    private static final long QUEUE_POLL_MILLIS = 100;
+
+    private final SessionFactory sessionFactory;
+    private final IngestProperties properties;
+    private final ObjectMapper objectMapper;
+    private final AuditStampListener auditStampListener;
+    private final AuditorAware<String> auditorAware;
+    private final UsernameFilter usernameFilter;
+    private final MemberCountCache memberCountCache;
+    private final MeterRegistry meterRegistry;
+    private final int batchSize;
+
+    private final AtomicLong ids = new AtomicLong();
+    private final Map<Long, IngestProgress> running = new ConcurrentHashMap<>();
+
+    public BulkIngestor(EntityManagerFactory entityManagerFactory,
+                        IngestProperties properties,
+                        ObjectMapper objectMapper,
+                        AuditStampListener auditStampListener,
+                        AuditorAware<String> auditorAware,
+                        UsernameFilter usernameFilter,
+                        MemberCountCache memberCountCache,
+                        MeterRegistry meterRegistry,
+                        @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:100}") int hibernateBatchSize) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.auditStampListener = auditStampListener;
+        this.auditorAware = auditorAware;
+        this.usernameFilter = usernameFilter;
+        this.memberCountCache = memberCountCache;
+        this.meterRegistry = meterRegistry;
+        this.batchSize = properties.getBatchSize() > 0 ? properties.getBatchSize() : hibernateBatchSize;
+    }
+
+    // 컬럼: username(필수), age
+    // auditStamp 가 true 면 BaseEntity 의 등록/수정자와 시각을 채움 (작성자는 적재 한 건당 한번, 시각은 묶음마다 한번 조회)
+    public IngestResult ingestMembers(InputStream in, IngestFormat format, boolean auditStamp) {
+        return ingest("member", in, format, BulkIngestor::toMember, auditStamp, members -> {
+            List<String> usernames = members.stream().map(Member::getUsername).toList();
+            long rebuilds = usernameFilter.addBeforeCommit(usernames);
+            return () -> {
+                usernameFilter.afterCommit(usernames, rebuilds);
+                memberCountCache.invalidateAll();
+            };
+        });
+    }
+
+    // Item 은 id 외에 컬럼이 없으므로 레코드 하나당 Item 하나를 만듦
+    public IngestResult ingestItems(InputStream in, IngestFormat format) {
+        return ingest("item", in, format, record -> new Item(), false, items -> () -> {
+        });
+    }
+
+    public List<IngestProgress> getRunning() {
+        return List.copyOf(running.values());
+    }
+
+    private <T> IngestResult ingest(String entity, InputStream in, IngestFormat format,
+                                    Function<Map<String, String>, T> mapper, boolean auditStamp,
+                                    Function<List<T>, Runnable> beforeCommit) {
+        long id = ids.incrementAndGet();
+        IngestProgress progress = new IngestProgress(entity);
+        running.put(id, progress);
+        String auditor = auditStamp ? auditorAware.getCurrentAuditor().orElse(null) : null;
+        Counter rows = meterRegistry.counter(ROWS_COUNTER, "entity", entity);
+        Timer chunkTimer = meterRegistry.timer(CHUNK_TIMER, "entity", entity);
+
+        BlockingQueue<List<Object>> queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        AtomicInteger threadNumber = new AtomicInteger();
+        ExecutorService writers = Executors.newFixedThreadPool(properties.getWriterThreads(), runnable -> {
+            Thread thread = new Thread(runnable, "ingest-" + entity + "-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < properties.getWriterThreads(); i++) {
+                futures.add(writers.submit(() -> write(queue, failure, progress, rows, chunkTimer,
+                        auditStamp, auditor, beforeCommit)));
+            }
+
+            RecordReader reader = new RecordReader(
+                    new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)), format, objectMapper);
+            try {
+                parse(reader, mapper, queue, failure, progress);
+            } finally {
+                for (int i = 0; i < properties.getWriterThreads(); i++) {
+                    end(queue, failure, futures);
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failure.compareAndSet(null, e);
+        } catch (Exception e) {
+            failure.compareAndSet(null, e);
+        } finally {
+            writers.shutdownNow();
+            running.remove(id);
+        }
+
+        if (failure.get() != null) {
+            Throwable cause = failure.get();
+            throw new IngestionFailedException(entity + " ingestion failed: " + cause.getMessage(),
+                    progress.getCommitted(), cause);
+        }
+        IngestResult result = progress.toResult();
+        log.info("ingested {} {} rows in {} chunks, {} ms ({} rows/s)", result.rows(), entity, result.chunks(),
+                result.elapsedMillis(), Math.round(result.rowsPerSecond()));
+        return result;
+    }
+
+    // 큐가 가득 차면 offer 에서 기다리므로 파싱이 insert 보다 메모리를 더 쓰지 않음
+    private <T> void parse(RecordReader reader, Function<Map<String, String>, T> mapper,
+                           BlockingQueue<List<Object>> queue, AtomicReference<Throwable> failure,
+                           IngestProgress progress) throws InterruptedException {
+        List<Object> chunk = new ArrayList<>(properties.getChunkSize());
+        try {
+            Map<String, String> record;
+            while (failure.get() == null && (record = reader.next()) != null) {
+                chunk.add(mapper.apply(record));
+                progress.parsed();
+                if (chunk.size() == properties.getChunkSize()) {
+                    if (!offer(queue, chunk, failure)) {
+                        return;
+                    }
+                    chunk = new ArrayList<>(properties.getChunkSize());
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            failure.compareAndSet(null,
+                    new IllegalArgumentException("line " + reader.getLineNumber() + ": " + e.getMessage(), e));
+            return;
+        }
+        if (!chunk.isEmpty() && failure.get() == null) {
+            offer(queue, chunk, failure);
+        }
+    }
+
+    // 큐에 자리가 날 때까지 기다리되, 그 사이 writer 가 실패하면 더 넣지 않고 false
+    private boolean offer(BlockingQueue<List<Object>> queue, List<Object> chunk,
+                          AtomicReference<Throwable> failure) throws InterruptedException {
+        while (!queue.offer(chunk, QUEUE_POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+            if (failure.get() != null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // writer 하나당 END 하나, 실패했으면 남은 묶음은 어차피 버리므로 치워서 END 가 들어갈 자리를 만듦
+    // writer 가 모두 끝났으면 END 를 받을 스레드가 없으므로 그만 넣음
+    private void end(BlockingQueue<List<Object>> queue, AtomicReference<Throwable> failure,
+                     List<Future<?>> writers) throws InterruptedException {
+        while (!queue.offer(END, QUEUE_POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+            if (failure.get() != null) {
+                queue.removeIf(chunk -> chunk != END);
+            }
+            if (writers.stream().allMatch(Future::isDone)) {
+                return;
+            }
+        }
+    }
+
+    // writer 스레드마다 StatelessSession 하나를 열고 묶음마다 트랜잭션을 커밋
+    // beforeCommit 은 묶음을 커밋하기 직전에 호출되고, 돌려준 Runnable 은 커밋 후에 실행됨
+    // 어느 writer 든 실패하면(beforeCommit/커밋 후 처리의 예외 포함) failure 에 남기고, 남은 묶음은 insert 하지 않고 END 까지 비우기만 함
+    private <T> void write(BlockingQueue<List<Object>> queue, AtomicReference<Throwable> failure,
+                           IngestProgress progress, Counter rows, Timer chunkTimer,
+                           boolean auditStamp, String auditor, Function<List<T>, Runnable> beforeCommit) {
+        try (StatelessSession session = sessionFactory.openStatelessSession()) {
+            session.setJdbcBatchSize(batchSize);
+            List<Object> chunk;
+            while ((chunk = queue.take()) != END) {
+                if (failure.get() != null) {
+                    continue;
+                }
+                try {
+                    long start = System.nanoTime();
+                    Runnable afterCommit = insert(session, chunk, auditStamp, auditor, beforeCommit);
+                    chunkTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                    progress.committed(chunk.size());
+                    rows.increment(chunk.size());
+                    afterCommit.run();
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failure.compareAndSet(null, e);
+        } catch (Throwable e) {
+            // 세션을 열거나 닫다가 실패, 남은 END 는 end() 가 writer 가 모두 끝난 걸 보고 그만 넣음
+            failure.compareAndSet(null, e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> Runnable insert(StatelessSession session, List<Object> chunk, boolean auditStamp, String auditor,
+                                Function<List<T>, Runnable> beforeCommit) {
+        Transaction tx = session.beginTransaction();
+        try {
+            LocalDateTime now = auditStamp ? LocalDateTime.now() : null;
+            for (Object entity : chunk) {
+                if (auditStamp) {
+                    auditStampListener.stampCreated(entity, auditor, now);
+                }
+                session.insert(entity);
+            }
+            Runnable afterCommit = beforeCommit.apply((List<T>) chunk);
+            tx.commit();
+            return afterCommit;
+        } catch (RuntimeException | Error e) {
+            if (tx.isActive()) {
+                tx.rollback();
+            }
+            throw e;
+        }
+    }
+
+    private static Member toMember(Map<String, String> record) {
+        String username = record.get("username");
+        if (username == null || username.isBlank()) {
+            throw new IllegalArgumentException("username is required");
+        }
+        String age = record.get("age");
+        return new Member(username, age == null ? 0 : Integer.parseInt(age.trim()));
+    }
+}
@@ -0,0 +1,8 @@
+package study.datajpa.ingest;
+
+public enum IngestFormat {
+    // 첫 줄은 헤더(컬럼 이름), 값에 , 나 " 가 있으면 "..." 로 감싸고 " 는 "" 로
+    CSV,
+    // 한 줄에 JSON 객체 하나
+    NDJSON
+}
@@ -0,0 +1,55 @@
+package study.datajpa.ingest;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// 진행 중인 적재 한 건의 진행 상황 (/monitoring/ingest)
+public class IngestProgress {
+
+    private final String entity;
+    private final long startedAt = System.nanoTime();
+    private final AtomicLong parsed = new AtomicLong();
+    private final AtomicLong committed = new AtomicLong();
+    private final AtomicLong chunks = new AtomicLong();
+
+    IngestProgress(String entity) {
+        this.entity = entity;
+    }
+
+    void parsed() {
+        parsed.incrementAndGet();
+    }
+
+    void committed(int rows) {
+        committed.addAndGet(rows);
+        chunks.incrementAndGet();
+    }
+
+    public String getEntity() {
+        return entity;
+    }
+
+    public long getParsed() {
+        return parsed.get();
+    }
+
+    public long getCommitted() {
+        return committed.get();
+    }
+
+    public long getChunks() {
+        return chunks.get();
+    }
+
+    public long getElapsedMillis() {
+        return (System.nanoTime() - startedAt) / 1_000_000;
+    }
+
+    public double getRowsPerSecond() {
+        long elapsed = System.nanoTime() - startedAt;
+        return elapsed == 0 ? 0 : committed.get() * 1_000_000_000.0 / elapsed;
+    }
+
+    IngestResult toResult() {
+        return new IngestResult(entity, getCommitted(), getChunks(), getElapsedMillis(), getRowsPerSecond());
+    }
+}
@@ -0,0 +1,22 @@
+package study.datajpa.ingest;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter @Setter
+@ConfigurationProperties("app.ingest")
+public class IngestProperties {
+
+    // 트랜잭션 하나로 커밋하는 행 수 - 실패하면 이 단위까지만 롤백되고 앞서 커밋된 묶음은 남음
+    private int chunkSize = 5_000;
+
+    // StatelessSession 으로 insert 하는 스레드 수 (= 동시에 잡는 커넥션 수)
+    private int writerThreads = 4;
+
+    // 파싱이 insert 보다 빠를 때 메모리에 쌓아두는 묶음 수, 가득 차면 파싱이 기다림
+    private int queueCapacity = 8;
+
+    // JDBC 배치 크기, 0 이면 hibernate.jdbc.batch_size 를 그대로 사용
+    private int batchSize = 0;
+}
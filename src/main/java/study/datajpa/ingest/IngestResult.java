@@ -0,0 +1,4 @@
+package study.datajpa.ingest;
+
+public record IngestResult(String entity, long rows, long chunks, long elapsedMillis, double rowsPerSecond) {
+}
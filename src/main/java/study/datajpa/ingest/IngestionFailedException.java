@@ -0,0 +1,15 @@
+package study.datajpa.ingest;
+
+import lombok.Getter;
+
+// 파싱 또는 insert 실패로 중단됨, committedRows 까지는 이미 커밋되어 남아있음
+@Getter
+public class IngestionFailedException extends RuntimeException {
+
+    private final long committedRows;
+
+    public IngestionFailedException(String message, long committedRows, Throwable cause) {
+        super(message + " (" + committedRows + " rows committed before failure)", cause);
+        this.committedRows = committedRows;
+    }
+}
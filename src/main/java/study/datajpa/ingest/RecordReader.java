@@ -0,0 +1,105 @@
+package study.datajpa.ingest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+// CSV/NDJSON 한 줄을 컬럼 이름 -> 값 Map 으로 변환, 빈 줄은 건너뜀
+// 한 줄에 레코드 하나인 형식만 지원 (CSV 값 안의 줄바꿈은 지원하지 않음)
+class RecordReader {
+
+    private final BufferedReader reader;
+    private final IngestFormat format;
+    private final ObjectMapper objectMapper;
+    private List<String> header;
+    private long lineNumber;
+
+    RecordReader(BufferedReader reader, IngestFormat format, ObjectMapper objectMapper) {
+        this.reader = reader;
+        this.format = format;
+        this.objectMapper = objectMapper;
+    }
+
+    // 더 읽을 레코드가 없으면 null
+    Map<String, String> next() throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            if (format == IngestFormat.NDJSON) {
+                return json(line);
+            }
+            if (header == null) {
+                header = csv(line).stream().map(String::trim).toList();
+                continue;
+            }
+            List<String> values = csv(line);
+            if (values.size() != header.size()) {
+                throw new IllegalArgumentException("expected " + header.size() + " columns but got " + values.size());
+            }
+            Map<String, String> record = new HashMap<>();
+            for (int i = 0; i < header.size(); i++) {
+                record.put(header.get(i), values.get(i).isEmpty() ? null : values.get(i));
+            }
+            return record;
+        }
+        return null;
+    }
+
+    long getLineNumber() {
+        return lineNumber;
+    }
+
+    private Map<String, String> json(String line) throws IOException {
+        JsonNode node = objectMapper.readTree(line);
+        if (!node.isObject()) {
+            throw new IllegalArgumentException("expected a JSON object");
+        }
+        Map<String, String> record = new HashMap<>();
+        for (Iterator<Map.Entry<String, JsonNode>> fields = node.fields(); fields.hasNext(); ) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            record.put(field.getKey(), field.getValue().isNull() ? null : field.getValue().asText());
+        }
+        return record;
+    }
+
+    private static List<String> csv(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    value.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    value.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(value.toString());
+                value.setLength(0);
+            } else {
+                value.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("unterminated quoted value");
+        }
+        values.add(value.toString());
+        return values;
+    }
+}
@@ -0,0 +1,73 @@
+package study.datajpa.locking;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+// 읽고-수정하고-쓰는 작업을 매 시도마다 새 트랜잭션으로 실행하고 @Version 충돌이 나면 다시 실행
+// 충돌한 트랜잭션끼리 같은 간격으로 다시 부딪히지 않도록 지수 백오프에 full jitter(0 ~ 상한 사이 임의 대기)를 씀
+// 이미 열린 트랜잭션 안에서 호출하면 재시도해도 같은 영속성 컨텍스트(옛 version)를 다시 쓰게 되므로 허용하지 않음
+@Slf4j
+@Component
+@EnableConfigurationProperties(OptimisticRetryProperties.class)
+public class OptimisticRetryExecutor {
+
+    private final TransactionTemplate transactionTemplate;
+    private final OptimisticRetryProperties properties;
+    private final LongAdder retries = new LongAdder();
+
+    public OptimisticRetryExecutor(PlatformTransactionManager transactionManager, OptimisticRetryProperties properties) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = properties;
+    }
+
+    public <T> T execute(Supplier<T> work) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("OptimisticRetryExecutor must not be called inside an existing transaction");
+        }
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> work.get());
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= properties.getMaxAttempts()) {
+                    throw e;
+                }
+                retries.increment();
+                log.debug("optimistic lock conflict, retry {}/{}", attempt, properties.getMaxAttempts() - 1);
+                backoff(attempt);
+            }
+        }
+    }
+
+    public void executeWithoutResult(Runnable work) {
+        execute(() -> {
+            work.run();
+            return null;
+        });
+    }
+
+    // 지금까지 재시도한 횟수 (충돌이 얼마나 나는지 보기 위한 값)
+    public long getRetryCount() {
+        return retries.sum();
+    }
+
+    private void backoff(int attempt) {
+        long ceiling = Math.min(properties.getMaxBackoff().toNanos(),
+                (long) (properties.getInitialBackoff().toNanos() * Math.pow(properties.getMultiplier(), attempt - 1)));
+        long sleep = ThreadLocalRandom.current().nextLong(ceiling + 1);
+        try {
+            Thread.sleep(sleep / 1_000_000, (int) (sleep % 1_000_000));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while backing off after an optimistic lock conflict", e);
+        }
+    }
+}
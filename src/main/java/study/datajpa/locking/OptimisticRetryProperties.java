@@ -0,0 +1,20 @@
+package study.datajpa.locking;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter @Setter
+@ConfigurationProperties("app.optimistic-retry")
+public class OptimisticRetryProperties {
+
+    // 첫 시도를 포함한 최대 실행 횟수
+    private int maxAttempts = 5;
+
+    // 재시도 대기 상한은 initialBackoff * multiplier^(시도-1) 이고 maxBackoff 를 넘지 않음
+    private Duration initialBackoff = Duration.ofMillis(5);
+    private Duration maxBackoff = Duration.ofMillis(200);
+    private double multiplier = 2.0;
+}
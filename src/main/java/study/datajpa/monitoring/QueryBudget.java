@@ -0,0 +1,18 @@
+package study.datajpa.monitoring;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// 메서드(컨트롤러 포함) 한 번 실행에서 허용할 SQL 수
+// N+1 처럼 데이터 건수에 비례해서 쿼리가 늘어나는 코드를 잡기 위해 사용
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface QueryBudget {
+
+    long max();
+
+    // true 면 초과하는 SQL 을 실행하기 전에 예외, false 면 경고 로그만 남김
+    boolean fail() default false;
+}
@@ -0,0 +1,25 @@
+package study.datajpa.monitoring;
+
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Aspect
+@Component
+public class QueryBudgetAspect {
+
+    @Around("@annotation(budget)")
+    public Object checkBudget(ProceedingJoinPoint joinPoint, QueryBudget budget) throws Throwable {
+        String name = joinPoint.getSignature().toShortString();
+        try (QueryCounter.Scope scope = QueryCounter.open(budget.max(), budget.fail(), name)) {
+            Object result = joinPoint.proceed();
+            if (scope.isExceeded()) {
+                log.warn("{} issued {} SQL statements, budget is {}", name, scope.getCount(), budget.max());
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package study.datajpa.monitoring;
+
+public class QueryBudgetExceededException extends RuntimeException {
+
+    public QueryBudgetExceededException(String name, long max, long count) {
+        super(name + " issued " + count + " SQL statements, budget is " + max);
+    }
+}
@@ -0,0 +1,13 @@
+package study.datajpa.monitoring;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+// Hibernate 가 SQL 을 준비할 때마다 호출됨 - SQL 은 바꾸지 않고 개수를 세거나(capture 범위면) 문장을 보관
+public class QueryCountInspector implements StatementInspector {
+
+    @Override
+    public String inspect(String sql) {
+        QueryCounter.record(sql);
+        return sql;
+    }
+}
@@ -0,0 +1,51 @@
+package study.datajpa.monitoring;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+// HTTP 요청 하나에서 실행된 SQL 수를 세고, 요청 단위 기본 예산을 넘으면 경고(또는 실패)
+@Slf4j
+public class QueryCountInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String SCOPE_ATTRIBUTE = QueryCountInterceptor.class.getName() + ".scope";
+
+    private final long requestMax;
+    private final boolean failOnExceed;
+
+    public QueryCountInterceptor(long requestMax, boolean failOnExceed) {
+        this.requestMax = requestMax;
+        this.failOnExceed = failOnExceed;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        String name = request.getMethod() + " " + request.getRequestURI();
+        request.setAttribute(SCOPE_ATTRIBUTE, QueryCounter.open(requestMax, failOnExceed, name));
+        return true;
+    }
+
+    // 비동기 응답(StreamingResponseBody 등)은 afterCompletion 대신 이쪽이 호출되므로 요청 스레드의 범위를 여기서 닫음
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getAttribute(SCOPE_ATTRIBUTE) instanceof QueryCounter.Scope scope) {
+            scope.close();
+            request.removeAttribute(SCOPE_ATTRIBUTE);
+        }
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (!(request.getAttribute(SCOPE_ATTRIBUTE) instanceof QueryCounter.Scope scope)) {
+            return;
+        }
+        scope.close();
+        request.removeAttribute(SCOPE_ATTRIBUTE);
+        if (scope.isExceeded()) {
+            log.warn("{} issued {} SQL statements, budget is {}", scope.getName(), scope.getCount(), scope.getMax());
+        } else {
+            log.debug("{} issued {} SQL statements", scope.getName(), scope.getCount());
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package study.datajpa.monitoring;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+// 현재 스레드에서 실행되는 SQL 수를 세는 카운터
+// 범위(Scope)는 중첩될 수 있고, SQL 이 실행되면 열려있는 모든 범위의 카운트가 함께 증가함
+public final class QueryCounter {
+
+    private static final ThreadLocal<Scope> CURRENT = new ThreadLocal<>();
+
+    private QueryCounter() {
+    }
+
+    public static Scope open() {
+        return open(Long.MAX_VALUE, false, "scope");
+    }
+
+    // max 를 넘으면 failOnExceed 에 따라 그 SQL 을 실행하기 전에 예외를 던지거나, close 시점에 초과 여부만 기록
+    public static Scope open(long max, boolean failOnExceed, String name) {
+        Scope scope = new Scope(CURRENT.get(), max, failOnExceed, name);
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    public static long count(Runnable block) {
+        try (Scope scope = open()) {
+            block.run();
+            return scope.getCount();
+        }
+    }
+
+    // block 안에서 실행된 SQL 문장 자체를 모음 (실행 계획 확인 등)
+    public static List<String> capture(Runnable block) {
+        try (Scope scope = open()) {
+            scope.statements = new ArrayList<>();
+            block.run();
+            return scope.statements;
+        }
+    }
+
+    public static <T> T withBudget(long max, Supplier<T> block) {
+        try (Scope scope = open(max, true, "budget")) {
+            return block.get();
+        }
+    }
+
+    static void record(String sql) {
+        for (Scope scope = CURRENT.get(); scope != null; scope = scope.parent) {
+            if (!scope.closed) {
+                scope.record(sql);
+            }
+        }
+    }
+
+    public static final class Scope implements AutoCloseable {
+
+        private final Scope parent;
+        private final long max;
+        private final boolean failOnExceed;
+        private final String name;
+        private long count;
+        private volatile boolean closed;
+        // capture() 로 연 범위에서만 SQL 을 보관
+        private List<String> statements;
+
+        private Scope(Scope parent, long max, boolean failOnExceed, String name) {
+            this.parent = parent;
+            this.max = max;
+            this.failOnExceed = failOnExceed;
+            this.name = name;
+        }
+
+        private void record(String sql) {
+            if (statements != null) {
+                statements.add(sql);
+            }
+            count++;
+            if (failOnExceed && count > max) {
+                throw new QueryBudgetExceededException(name, max, count);
+            }
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getMax() {
+            return max;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public boolean isExceeded() {
+            return count > max;
+        }
+
+        // 닫힘 표시를 하고 현재 스레드 스택 위쪽의 닫힌 범위들을 걷어냄
+        // 두번 닫거나 다른 스레드(비동기 콜백)에서 닫아도 열려 있는 범위는 빠지지 않고,
+        // 안쪽 범위보다 먼저 닫힌 범위는 안쪽 범위가 닫힐 때 함께 빠짐
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            Scope open = CURRENT.get();
+            while (open != null && open.closed) {
+                open = open.parent;
+            }
+            if (open == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(open);
+            }
+        }
+    }
+}
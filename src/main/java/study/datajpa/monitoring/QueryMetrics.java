@@ -0,0 +1,104 @@
+package study.datajpa.monitoring;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+// 리포지토리 메서드 / SQL 모양 / 커넥션 획득 시간의 지연시간 히스토그램(p50, p99, max)과 반환 행 수
+// 호출마다 기록하지 않고 sample-rate 비율만 기록해서 부하가 몰려도 측정 비용이 거의 없도록 함
+// Timer 는 이름+태그로 매번 찾지 않도록 키별로 캐시
+@Component
+public class QueryMetrics {
+
+    public static final String REPOSITORY_TIMER = "app.repository.method";
+    public static final String REPOSITORY_ROWS = "app.repository.rows";
+    public static final String SQL_TIMER = "app.sql.statement";
+    public static final String SQL_ROWS = "app.sql.rows";
+    public static final String CONNECTION_ACQUIRE_TIMER = "app.jdbc.connection.acquire";
+
+    private static final String OTHER_SHAPE = "other";
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    // in (?, ?, ?) 처럼 바인딩 개수만 다른 SQL 은 같은 모양으로 봄
+    private static final Pattern PARAMETER_LIST = Pattern.compile("\\(\\s*\\?(\\s*,\\s*\\?)*\\s*\\)");
+
+    private final MeterRegistry registry;
+    private final double sampleRate;
+    private final int maxSqlShapes;
+
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private final Map<String, DistributionSummary> summaries = new ConcurrentHashMap<>();
+    private final Map<String, String> shapes = new ConcurrentHashMap<>();
+
+    public QueryMetrics(MeterRegistry registry,
+                        @Value("${app.metrics.sample-rate:0.1}") double sampleRate,
+                        @Value("${app.metrics.max-sql-shapes:500}") int maxSqlShapes) {
+        this.registry = registry;
+        this.sampleRate = sampleRate;
+        this.maxSqlShapes = maxSqlShapes;
+    }
+
+    public boolean sample() {
+        return sampleRate >= 1.0 || ThreadLocalRandom.current().nextDouble() < sampleRate;
+    }
+
+    public double getSampleRate() {
+        return sampleRate;
+    }
+
+    public void recordRepository(String repository, String method, long nanos, long rows) {
+        String key = repository + "." + method;
+        timer(REPOSITORY_TIMER, key, "repository", repository, "method", method).record(nanos, TimeUnit.NANOSECONDS);
+        if (rows >= 0) {
+            summary(REPOSITORY_ROWS, key, "repository", repository, "method", method).record(rows);
+        }
+    }
+
+    public void recordSql(String sql, long nanos, long rows) {
+        String shape = shape(sql);
+        timer(SQL_TIMER, shape, "sql", shape).record(nanos, TimeUnit.NANOSECONDS);
+        if (rows >= 0) {
+            summary(SQL_ROWS, shape, "sql", shape).record(rows);
+        }
+    }
+
+    public void recordConnectionAcquire(long nanos) {
+        timer(CONNECTION_ACQUIRE_TIMER, "", "pool", "routing").record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    // 공백을 정리하고 파라미터 목록을 (?...) 로 줄인 SQL, 모양 수가 max-sql-shapes 를 넘으면 other
+    String shape(String sql) {
+        String cached = shapes.get(sql);
+        if (cached != null) {
+            return cached;
+        }
+        String shape = PARAMETER_LIST.matcher(WHITESPACE.matcher(sql.trim()).replaceAll(" ")).replaceAll("(?...)");
+        if (shapes.size() >= maxSqlShapes) {
+            return shapes.containsValue(shape) ? shape : OTHER_SHAPE;
+        }
+        shapes.put(sql, shape);
+        return shape;
+    }
+
+    private Timer timer(String name, String key, String... tags) {
+        return timers.computeIfAbsent(name + "|" + key, k -> Timer.builder(name)
+                .tags(tags)
+                .publishPercentiles(0.5, 0.99)
+                .distributionStatisticExpiry(Duration.ofMinutes(2))
+                .register(registry));
+    }
+
+    private DistributionSummary summary(String name, String key, String... tags) {
+        return summaries.computeIfAbsent(name + "|" + key, k -> DistributionSummary.builder(name)
+                .tags(tags)
+                .register(registry));
+    }
+}
@@ -0,0 +1,67 @@
+package study.datajpa.monitoring;
+
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.MemberRepository;
+
+import java.util.Collection;
+import java.util.Optional;
+
+// MemberRepository / TeamRepository 메서드별 지연시간과 반환 행 수를 sample-rate 비율로 기록
+// JpaRepository 에서 물려받은 findById, save 같은 메서드도 리포지토리 프록시를 통해 호출되므로 같이 잡힘
+// 샘플링과 관계없이 실행 중인 메서드 이름을 SlowQueryLog 에 알려서 느린 SQL 을 호출한 메서드로 묶음
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class RepositoryMetricsAspect {
+
+    private final QueryMetrics metrics;
+
+    @Around("this(study.datajpa.repository.MemberRepository) || this(study.datajpa.repository.TeamRepository)")
+    public Object measure(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (joinPoint.getSignature().getDeclaringType() == Object.class) {
+            return joinPoint.proceed();
+        }
+        String repository = joinPoint.getThis() instanceof MemberRepository ? "MemberRepository" : "TeamRepository";
+        String method = joinPoint.getSignature().getName();
+        String previous = SlowQueryLog.enterRepositoryMethod(repository + "." + method);
+        try {
+            if (!metrics.sample()) {
+                return joinPoint.proceed();
+            }
+            long start = System.nanoTime();
+            Object result = joinPoint.proceed();
+            long elapsed = System.nanoTime() - start;
+            metrics.recordRepository(repository, method, elapsed, rows(result));
+            return result;
+        } finally {
+            SlowQueryLog.exitRepositoryMethod(previous);
+        }
+    }
+
+    // 행 수를 알 수 없는 반환 타입(count, Stream, CompletableFuture ...)은 -1
+    private static long rows(Object result) {
+        if (result == null) {
+            return 0;
+        }
+        if (result instanceof Collection<?> collection) {
+            return collection.size();
+        }
+        if (result instanceof Slice<?> slice) {
+            return slice.getNumberOfElements();
+        }
+        if (result instanceof Optional<?> optional) {
+            return optional.isPresent() ? 1 : 0;
+        }
+        if (result instanceof Member || result instanceof Team) {
+            return 1;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,39 @@
+package study.datajpa.monitoring;
+
+import lombok.Getter;
+
+import java.time.Instant;
+import java.util.List;
+
+// 느린 쿼리 한 건, 바인딩 값은 개인정보가 들어갈 수 있으므로 개수만 남김
+// 실행 계획은 별도 스레드에서 채워지므로 조회 시점에 따라 null 일 수 있음
+@Getter
+public class SlowQuery {
+
+    private final Instant occurredAt;
+    private final String sql;
+    private final double elapsedMs;
+    // ResultSet 을 반환하지 않는 문장(update/delete ...)은 -1
+    private final long rows;
+    private final int parameterCount;
+    // in (?, ?, ...) 목록마다 바인딩 개수 (in_clause_parameter_padding 으로 채워진 개수)
+    private final List<Integer> inListSizes;
+    // 리포지토리 밖(JdbcTemplate, 엔티티 지연 로딩 ...)에서 실행되면 null
+    private final String repositoryMethod;
+    private volatile String plan;
+
+    SlowQuery(Instant occurredAt, String sql, double elapsedMs, long rows, int parameterCount,
+              List<Integer> inListSizes, String repositoryMethod) {
+        this.occurredAt = occurredAt;
+        this.sql = sql;
+        this.elapsedMs = elapsedMs;
+        this.rows = rows;
+        this.parameterCount = parameterCount;
+        this.inListSizes = inListSizes;
+        this.repositoryMethod = repositoryMethod;
+    }
+
+    void setPlan(String plan) {
+        this.plan = plan;
+    }
+}
@@ -0,0 +1,249 @@
+package study.datajpa.monitoring;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// threshold 이상 걸린 SQL 을 최근 capacity 건만 링 버퍼에 보관 (/monitoring/slow-queries)
+// 모든 문장을 로그로 남기지 않고 실행 시간만 재다가 느린 것만 기록하므로 평소 비용은 System.nanoTime 두번
+// 느린 select 는 별도 스레드에서 같은 바인딩 값으로 H2 의 EXPLAIN ANALYZE 를 실행해 계획(실제 읽은 행 수 포함)을 붙임
+// EXPLAIN 은 DataSourceConfig 가 넘겨준 MeteredDataSource 안쪽(bulkhead -> 라우팅)에서 readOnly 로 커넥션을 얻어 복제본에서 실행
+@Slf4j
+@Component
+@EnableConfigurationProperties(SlowQueryProperties.class)
+public class SlowQueryLog {
+
+    // 현재 스레드에서 실행 중인 리포지토리 메서드 (RepositoryMetricsAspect 가 설정)
+    private static final ThreadLocal<String> REPOSITORY_METHOD = new ThreadLocal<>();
+
+    private static final Pattern IN_LIST = Pattern.compile("(?i)\\bin\\s*\\(\\s*\\?(\\s*,\\s*\\?)*\\s*\\)");
+    // 락을 잡는 select, H2 의 data change delta table(select ... from final table (update ...))은 다시 실행하면 안 됨
+    private static final Pattern NOT_REPEATABLE =
+            Pattern.compile("(?i)\\bfor\\s+update\\b|\\bskip\\s+locked\\b|\\b(final|new|old)\\s+table\\b");
+
+    private final SlowQueryProperties properties;
+    private final QueryMetrics queryMetrics;
+    // 계획을 얻는 쿼리가 다시 측정/기록되지 않도록 MeteredDataSource 안쪽의 DataSource 를 사용, 설정 전에는 EXPLAIN 하지 않음
+    private volatile DataSource explainDataSource;
+    private final long thresholdNanos;
+
+    private final SlowQuery[] entries;
+    private long next;
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong explained = new AtomicLong();
+    private final AtomicLong explainSkipped = new AtomicLong();
+    private final Map<String, Long> lastExplained = new ConcurrentHashMap<>();
+
+    // EXPLAIN ANALYZE 는 느린 쿼리를 한번 더 실행하는 것이므로 스레드 1개, 밀리면 버림
+    private final ThreadPoolExecutor explainExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(16), runnable -> {
+        Thread thread = new Thread(runnable, "slow-query-explain");
+        thread.setDaemon(true);
+        return thread;
+    }, (runnable, executor) -> explainSkipped.incrementAndGet());
+
+    public SlowQueryLog(SlowQueryProperties properties, QueryMetrics queryMetrics) {
+        this.properties = properties;
+        this.queryMetrics = queryMetrics;
+        this.thresholdNanos = properties.getThreshold().toNanos();
+        this.entries = new SlowQuery[properties.getCapacity()];
+    }
+
+    public void setExplainDataSource(DataSource explainDataSource) {
+        this.explainDataSource = explainDataSource;
+    }
+
+    public static String enterRepositoryMethod(String method) {
+        String previous = REPOSITORY_METHOD.get();
+        REPOSITORY_METHOD.set(method);
+        return previous;
+    }
+
+    public static void exitRepositoryMethod(String previous) {
+        if (previous == null) {
+            REPOSITORY_METHOD.remove();
+        } else {
+            REPOSITORY_METHOD.set(previous);
+        }
+    }
+
+    public static String currentRepositoryMethod() {
+        return REPOSITORY_METHOD.get();
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled() && entries.length > 0;
+    }
+
+    public boolean isSlow(long nanos) {
+        return isEnabled() && nanos >= thresholdNanos;
+    }
+
+    // parameters 는 호출한 쪽에서 복사한 바인딩 값 (EXPLAIN ANALYZE 에만 사용하고 저장하지 않음)
+    public void record(String sql, long nanos, long rows, Object[] parameters, String repositoryMethod) {
+        if (!isSlow(nanos)) {
+            return;
+        }
+        String shape = queryMetrics.shape(sql);
+        SlowQuery slowQuery = new SlowQuery(Instant.now(), shape, nanos / 1_000_000.0, rows,
+                parameterCount(sql), inListSizes(sql), repositoryMethod);
+        add(slowQuery);
+        total.incrementAndGet();
+        log.warn("slow query {} ms from {}: {}", String.format(Locale.ROOT, "%.1f", slowQuery.getElapsedMs()),
+                repositoryMethod, shape);
+
+        if (properties.isExplain()) {
+            explain(slowQuery, sql, parameters);
+        }
+    }
+
+    // 최신 순
+    public List<SlowQuery> getEntries() {
+        List<SlowQuery> result = new ArrayList<>(entries.length);
+        synchronized (entries) {
+            long size = Math.min(next, entries.length);
+            for (long i = 1; i <= size; i++) {
+                result.add(entries[(int) ((next - i) % entries.length)]);
+            }
+        }
+        return result;
+    }
+
+    public long getTotal() {
+        return total.get();
+    }
+
+    public long getExplained() {
+        return explained.get();
+    }
+
+    public long getExplainSkipped() {
+        return explainSkipped.get();
+    }
+
+    public SlowQueryProperties getProperties() {
+        return properties;
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            Arrays.fill(entries, null);
+            next = 0;
+        }
+        lastExplained.clear();
+    }
+
+    private void add(SlowQuery slowQuery) {
+        synchronized (entries) {
+            entries[(int) (next % entries.length)] = slowQuery;
+            next++;
+        }
+    }
+
+    // 데이터를 바꾸거나 락을 잡는 문장은 다시 실행하면 안 되므로 select 만
+    private void explain(SlowQuery slowQuery, String sql, Object[] parameters) {
+        String statement = sql.trim().toLowerCase(Locale.ROOT);
+        if (!(statement.startsWith("select") || statement.startsWith("with")) || NOT_REPEATABLE.matcher(sql).find()
+                || parameters == null || explainDataSource == null) {
+            return;
+        }
+        long now = System.nanoTime();
+        long interval = properties.getExplainInterval().toNanos();
+        Long previous = lastExplained.get(slowQuery.getSql());
+        if (previous != null && now - previous < interval) {
+            explainSkipped.incrementAndGet();
+            return;
+        }
+        lastExplained.put(slowQuery.getSql(), now);
+        explainExecutor.execute(() -> {
+            try {
+                slowQuery.setPlan(explainAnalyze(sql, parameters));
+                explained.incrementAndGet();
+            } catch (SQLException | RuntimeException e) {
+                slowQuery.setPlan("explain failed: " + e.getMessage());
+            }
+        });
+    }
+
+    private String explainAnalyze(String sql, Object[] parameters) throws SQLException {
+        try (Connection connection = explainConnection();
+             PreparedStatement statement = connection.prepareStatement("explain analyze " + sql)) {
+            for (int i = 0; i < parameters.length; i++) {
+                statement.setObject(i + 1, parameters[i]);
+            }
+            StringBuilder plan = new StringBuilder();
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    plan.append(resultSet.getString(1)).append('\n');
+                }
+            }
+            return plan.toString().trim();
+        }
+    }
+
+    // 트랜잭션이 없는 스레드이므로 readOnly 로 표시해야 ReplicationRoutingDataSource 가 복제본으로 보냄 (복제본이 없으면 primary)
+    // bulkhead 가 켜져 있으면 다른 요청과 같은 세마포어에서 줄을 섬
+    private Connection explainConnection() throws SQLException {
+        boolean previous = TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        try {
+            Connection connection = explainDataSource.getConnection();
+            connection.setReadOnly(true);
+            return connection;
+        } finally {
+            TransactionSynchronizationManager.setCurrentTransactionReadOnly(previous);
+        }
+    }
+
+    // 이미 받은 EXPLAIN 작업이 모두 끝날 때까지 대기 (테스트용)
+    boolean awaitExplains(Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (explainExecutor.getCompletedTaskCount() < explainExecutor.getTaskCount()) {
+            if (System.nanoTime() > deadline) {
+                return false;
+            }
+            Thread.sleep(10);
+        }
+        return true;
+    }
+
+    private static int parameterCount(String sql) {
+        return (int) sql.chars().filter(c -> c == '?').count();
+    }
+
+    private static List<Integer> inListSizes(String sql) {
+        List<Integer> sizes = new ArrayList<>();
+        Matcher matcher = IN_LIST.matcher(sql);
+        while (matcher.find()) {
+            sizes.add(parameterCount(matcher.group()));
+        }
+        return sizes;
+    }
+
+    @PreDestroy
+    public void close() {
+        explainExecutor.shutdownNow();
+    }
+}
@@ -0,0 +1,28 @@
+package study.datajpa.monitoring;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter @Setter
+@ConfigurationProperties("app.slow-query")
+public class SlowQueryProperties {
+
+    // 켜면 샘플링과 관계없이 모든 문장을 프록시로 감싸서 실행 시간을 재고 바인딩 값을 붙잡아 두므로 기본은 꺼둠
+    // 느린 쿼리를 찾을 때만 켬
+    private boolean enabled = false;
+
+    // 실행(execute) 시간이 이 값 이상인 SQL 만 기록
+    private Duration threshold = Duration.ofMillis(200);
+
+    // 메모리에 남기는 최근 느린 쿼리 수, 넘으면 가장 오래된 것부터 덮어씀
+    private int capacity = 100;
+
+    // 느린 select 를 같은 바인딩 값으로 EXPLAIN ANALYZE 해서 실행 계획을 함께 저장
+    private boolean explain = true;
+
+    // 같은 SQL 모양은 이 간격 안에 한번만 EXPLAIN ANALYZE (계획을 얻으려고 느린 쿼리를 한번 더 실행하므로)
+    private Duration explainInterval = Duration.ofMinutes(1);
+}
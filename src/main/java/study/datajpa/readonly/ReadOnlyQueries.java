@@ -0,0 +1,38 @@
+package study.datajpa.readonly;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.function.Supplier;
+
+// @ReadOnlyQuery 를 붙일 수 없는 곳(람다, 여러 리포지토리 호출을 묶는 코드)에서 쓰는 읽기 전용 실행 API
+// - 트랜잭션 없음: readOnly 트랜잭션을 열고 실행, JpaTransactionManager 가 세션을 defaultReadOnly + MANUAL 로 바꾸고
+//   커넥션을 readOnly 로 표시함(ReplicationRoutingDataSource 가 복제본으로 라우팅)
+// - 이미 트랜잭션 안: 그대로 실행
+//   쓰기 트랜잭션에서 세션을 읽기 전용으로 바꾸면 이 범위에서 로딩한 엔티티를 호출한 쪽이 수정해도 커밋 시 조용히 버려지므로 바꾸지 않음
+@Component
+public class ReadOnlyQueries {
+
+    private final TransactionTemplate readOnlyTx;
+
+    public ReadOnlyQueries(PlatformTransactionManager transactionManager) {
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+    }
+
+    public <T> T call(Supplier<T> block) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return readOnlyTx.execute(status -> block.get());
+        }
+        return block.get();
+    }
+
+    public void run(Runnable block) {
+        call(() -> {
+            block.run();
+            return null;
+        });
+    }
+}
@@ -0,0 +1,18 @@
+package study.datajpa.readonly;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// 붙인 메서드(타입에 붙이면 모든 메서드)와 그 안에서 호출되는 조회를 읽기 전용으로 실행 (ReadOnlyQueries 참고)
+// 리포지토리 인터페이스, 사용자 정의 리포지토리 인터페이스, 일반 빈(서비스/컨트롤러) 어디에든 붙일 수 있음
+// 트랜잭션 밖에서 시작하면 readOnly 트랜잭션(읽기 전용 커넥션, 복제본 라우팅)으로 실행
+// - 로딩한 엔티티는 읽기 전용 -> 스냅샷(hydrated state)을 보관하지 않고 dirty checking 대상에서도 빠짐
+// - FlushMode.MANUAL -> 조회 전/커밋 시 flush 하지 않음
+// 이미 열린 트랜잭션 안에서 호출되면 아무것도 바꾸지 않음
+// 엔티티를 돌려주는 메서드에는 붙이지 않고 DTO/projection 조회에만 사용
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ReadOnlyQuery {
+}
@@ -0,0 +1,82 @@
+package study.datajpa.readonly;
+
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// 리포지토리는 인터페이스 JDK 프록시라서 인터페이스에 붙인 어노테이션을 @within/@annotation 으로 잡을 수 없음
+// 리포지토리 메서드는 모두 받아서 (인터페이스 메서드, 구현 메서드, 프록시가 구현한 인터페이스) 에 붙어있는지 직접 확인하고 메서드별로 캐시
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class ReadOnlyQueryAspect {
+
+    private final ReadOnlyQueries readOnlyQueries;
+    // JpaRepository 에서 물려받은 메서드는 리포지토리끼리 같은 Method 이므로 프록시 클래스별로 나눠서 캐시
+    private final Map<Class<?>, Map<Method, Boolean>> annotated = new ConcurrentHashMap<>();
+
+    @Around("@within(study.datajpa.readonly.ReadOnlyQuery) || @annotation(study.datajpa.readonly.ReadOnlyQuery)" +
+            " || this(org.springframework.data.repository.Repository)")
+    public Object readOnly(ProceedingJoinPoint joinPoint) throws Throwable {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        Object proxy = joinPoint.getThis();
+        Object target = joinPoint.getTarget();
+        boolean readOnly = annotated.computeIfAbsent(proxy.getClass(), type -> new ConcurrentHashMap<>())
+                .computeIfAbsent(method, m -> isReadOnly(m, proxy, target));
+        if (!readOnly) {
+            return joinPoint.proceed();
+        }
+        try {
+            return readOnlyQueries.call(() -> {
+                try {
+                    return joinPoint.proceed();
+                } catch (RuntimeException | Error e) {
+                    throw e;
+                } catch (Throwable e) {
+                    throw new CheckedException(e);
+                }
+            });
+        } catch (CheckedException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static final class CheckedException extends RuntimeException {
+        CheckedException(Throwable cause) {
+            super(cause);
+        }
+    }
+
+    private static boolean isReadOnly(Method method, Object proxy, Object target) {
+        if (method.getDeclaringClass() == Object.class) {
+            return false;
+        }
+        if (AnnotatedElementUtils.hasAnnotation(method, ReadOnlyQuery.class)
+                || AnnotatedElementUtils.hasAnnotation(method.getDeclaringClass(), ReadOnlyQuery.class)) {
+            return true;
+        }
+        if (target != null) {
+            Class<?> targetClass = AopUtils.getTargetClass(target);
+            if (AnnotatedElementUtils.hasAnnotation(AopUtils.getMostSpecificMethod(method, targetClass), ReadOnlyQuery.class)
+                    || AnnotatedElementUtils.hasAnnotation(targetClass, ReadOnlyQuery.class)) {
+                return true;
+            }
+        }
+        // 타입 레벨로 붙인 리포지토리 인터페이스 (findAll 처럼 JpaRepository 에서 물려받은 메서드 포함)
+        for (Class<?> type : proxy.getClass().getInterfaces()) {
+            if (type.isAnnotationPresent(ReadOnlyQuery.class)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
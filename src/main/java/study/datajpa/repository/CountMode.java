@@ -0,0 +1,9 @@
+package study.datajpa.repository;
+
+// Page 의 전체 개수(totalElements)를 구하는 방식
+public enum CountMode {
+    // count 쿼리 결과를 ttl 동안 캐시
+    CACHED,
+    // count 쿼리 대신 DB 통계의 추정치 사용(조건 없는 전체 개수에만 의미가 있음)
+    ESTIMATED
+}
@@ -0,0 +1,35 @@
+package study.datajpa.repository;
+
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import study.datajpa.entity.Member;
+
+// save() 를 한 건씩 호출하면 insert 마다 statement 가 나가고 영속성 컨텍스트도 계속 커짐
+// 배치 크기만큼 persist 한 뒤 flush 로 한번에 보내고 clear 로 영속성 컨텍스트를 비워서 메모리를 일정하게 유지
+// clear 를 하기 때문에 같은 트랜잭션 안에서 이전에 조회한 엔티티들도 준영속 상태가 됨
+// MemberRepository(Spring Data) 와 MemberJpaRepository(순수 JPA) 가 같이 사용, 반드시 트랜잭션 안에서 호출해야 함
+@Component
+@RequiredArgsConstructor
+public class MemberBatchInserter {
+
+    private final EntityManager em;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:100}")
+    private int batchSize;
+
+    public int persistAll(Iterable<? extends Member> members) {
+        int count = 0;
+        for (Member member : members) {
+            em.persist(member);
+            if (++count % batchSize == 0) {
+                em.flush();
+                em.clear();
+            }
+        }
+        em.flush();
+        em.clear();
+        return count;
+    }
+}
@@ -0,0 +1,122 @@
+package study.datajpa.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Session;
+import org.hibernate.engine.spi.EntityEntry;
+import org.hibernate.engine.spi.EntityKey;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.datajpa.entity.Member;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// 영향받은 Member 만 골라서 영속성 컨텍스트/2차 캐시를 맞추는 bulk update
+// @Modifying(clearAutomatically = true) 는 영속성 컨텍스트 전체를 비우고, JPQL bulk update 는 member 2차 캐시 리전 전체를 비움
+// 여기서는 update 와 동시에 바뀐 행을 돌려받아 그 id 들만 refresh/detach 하고 2차 캐시에서도 그 id 들만 지움
+// 반드시 쓰기 트랜잭션 안에서 호출해야 함
+@Component
+@RequiredArgsConstructor
+public class MemberBulkUpdater {
+
+    private final EntityManager em;
+    private final EntityManagerFactory emf;
+
+    // age 이상인 member 의 나이를 1 올리고 바뀐 member 의 id 목록을 반환
+    public List<Long> agePlus(int age, PersistenceContextSync sync) {
+        // JDBC 로 바로 실행하므로 auto flush 가 일어나지 않음, 쌓여있는 변경을 먼저 내보냄
+        em.flush();
+
+        // H2 의 data change delta table - update 된 행을 select 로 바로 받음 (PostgreSQL 이면 update ... returning)
+        // Hibernate 의 bulk 처리(executeUpdate)를 거치지 않기 때문에 캐시 리전 전체가 비워지지 않음
+        // 바뀐 행의 age/version 도 같이 받아서 REFRESH 할 때 다시 select 하지 않음
+        List<Updated> updated = em.unwrap(Session.class).doReturningWork(connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(
+                    "select member_id, age, version from final table (update member set age = age + 1, version = version + 1 where age >= ?)")) {
+                ps.setInt(1, age);
+                List<Updated> result = new ArrayList<>();
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        result.add(new Updated(rs.getLong(1), rs.getInt(2), rs.getLong(3)));
+                    }
+                }
+                return result;
+            }
+        });
+
+        List<Long> ids = updated.stream().map(Updated::id).toList();
+        syncPersistenceContext(updated, sync);
+        evictSecondLevelCache(ids);
+        return ids;
+    }
+
+    private void syncPersistenceContext(List<Updated> updated, PersistenceContextSync sync) {
+        SessionImplementor session = em.unwrap(SessionImplementor.class);
+        EntityPersister persister = persister();
+        int ageIndex = persister.getPropertyIndex("age");
+        for (Updated row : updated) {
+            // 영속성 컨텍스트에 이미 올라와 있는 엔티티만 대상, 없는 id 를 조회하지는 않음
+            Object managed = session.getPersistenceContextInternal().getEntity(new EntityKey(row.id(), persister));
+            if (managed == null) {
+                continue;
+            }
+            if (sync == PersistenceContextSync.REFRESH) {
+                // update 가 바꾼 컬럼은 age, version 뿐이므로 받아온 값을 같은 인스턴스에 덮어쓰고
+                // 스냅샷(loaded state)과 version 도 맞춰서 flush 때 변경으로 잡히지 않게 함
+                EntityEntry entry = session.getPersistenceContextInternal().getEntry(managed);
+                persister.setValue(managed, ageIndex, row.age());
+                if (entry.isReadOnly()) {
+                    persister.setValue(managed, persister.getVersionProperty(), row.version());
+                } else {
+                    entry.postUpdate(managed, persister.getValues(managed), row.version());
+                }
+            } else {
+                em.detach(managed);
+            }
+        }
+    }
+
+    // 지금 지우고, 커밋 전에 다른 트랜잭션이 옛 값을 다시 넣었을 수 있으므로 트랜잭션이 끝난 뒤에도 한번 더 지움
+    // 쿼리 캐시는 항목 단위로 지울 수 없어서 member 테이블의 timestamp 를 갱신해 member 를 읽은 쿼리 결과만 무효화
+    private void evictSecondLevelCache(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        Runnable evict = () -> ids.forEach(id -> emf.getCache().evict(Member.class, id));
+        evict.run();
+        invalidateQueryCache();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evict.run();
+                }
+            });
+        }
+    }
+
+    private void invalidateQueryCache() {
+        SessionFactoryImplementor factory = emf.unwrap(SessionFactoryImplementor.class);
+        if (!factory.getSessionFactoryOptions().isQueryCacheEnabled()) {
+            return;
+        }
+        String[] spaces = Arrays.stream(persister().getQuerySpaces()).map(Object::toString).toArray(String[]::new);
+        factory.getCache().getTimestampsCache().invalidate(spaces, em.unwrap(SessionImplementor.class));
+    }
+
+    private EntityPersister persister() {
+        return emf.unwrap(SessionFactoryImplementor.class).getMappingMetamodel().getEntityDescriptor(Member.class);
+    }
+
+    private record Updated(long id, int age, long version) {
+    }
+}
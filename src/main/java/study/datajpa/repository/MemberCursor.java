@@ -0,0 +1,88 @@
+package study.datajpa.repository;
+
+import lombok.Getter;
+import org.springframework.data.domain.Sort;
+import study.datajpa.entity.Member;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+// keyset(seek) 페이징에서 마지막으로 읽은 행의 정렬 키를 담는 커서
+// offset 처럼 앞의 행들을 건너뛰지 않고 "이 키 다음부터" 조회하기 때문에 깊은 페이지도 첫 페이지와 비용이 같음
+// 클라이언트에게는 base64 로 인코딩된 불투명한 문자열로만 노출
+@Getter
+public class MemberCursor {
+
+    // id 단독 정렬 또는 username + id(동일한 username 끼리의 순서를 보장하기 위한 tie-breaker) 정렬
+    // username 이 null 인 행은 가장 작은 값으로 취급 (오름차순이면 맨 앞, 내림차순이면 맨 뒤)
+    public enum SortKey {
+        ID, USERNAME;
+
+        public static SortKey from(String value) {
+            return SortKey.valueOf(value.toUpperCase());
+        }
+    }
+
+    private final SortKey sortKey;
+    private final Sort.Direction direction;
+    private final String username;
+    private final Long id;
+
+    private MemberCursor(SortKey sortKey, Sort.Direction direction, String username, Long id) {
+        this.sortKey = sortKey;
+        this.direction = direction;
+        this.username = username;
+        this.id = id;
+    }
+
+    // 위치 정보가 없는 커서 = 첫 페이지
+    public static MemberCursor first(SortKey sortKey, Sort.Direction direction) {
+        return new MemberCursor(sortKey, direction, null, null);
+    }
+
+    public static MemberCursor of(SortKey sortKey, Sort.Direction direction, String username, Long id) {
+        return new MemberCursor(sortKey, direction, username, id);
+    }
+
+    // 현재 페이지의 마지막 행을 기준으로 다음 페이지 커서 생성
+    public MemberCursor next(Member last) {
+        return new MemberCursor(sortKey, direction, sortKey == SortKey.USERNAME ? last.getUsername() : null, last.getId());
+    }
+
+    public boolean hasPosition() {
+        return id != null;
+    }
+
+    public boolean isDescending() {
+        return direction.isDescending();
+    }
+
+    // username 정렬에서 username 이 null 인 행의 커서는 네번째 토큰을 생략해서 빈 문자열("...:")과 구분
+    public String encode() {
+        String raw = sortKey.name() + ":" + direction.name() + ":" + id;
+        if (sortKey == SortKey.USERNAME && username != null) {
+            raw += ":" + username;
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static MemberCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            // username 안에 ':' 가 들어갈 수 있으므로 앞의 세 토큰만 분리
+            String[] parts = raw.split(":", 4);
+            SortKey sortKey = SortKey.valueOf(parts[0]);
+            Sort.Direction direction = Sort.Direction.valueOf(parts[1]);
+            Long id = Long.valueOf(parts[2]);
+            if (parts.length == 3) {
+                return new MemberCursor(sortKey, direction, null, id);
+            }
+            if (sortKey == SortKey.USERNAME && parts.length == 4) {
+                return new MemberCursor(sortKey, direction, parts[3], id);
+            }
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("invalid cursor: " + token, e);
+        }
+        throw new IllegalArgumentException("invalid cursor: " + token);
+    }
+}
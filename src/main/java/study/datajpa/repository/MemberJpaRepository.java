@@ -2,6 +2,7 @@ package study.datajpa.repository;
 
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Repository;
 import study.datajpa.entity.Member;
 
@@ -9,17 +10,26 @@ import java.util.List;
 import java.util.Optional;
 
 @Repository
+@RequiredArgsConstructor
 public class MemberJpaRepository {
 
     // Spring 컨테이너가 jpa 영속성 컨텍스트를 통해서 db 조작을 하게 됨
     @PersistenceContext
     private EntityManager em;
 
+    private final MemberBulkUpdater memberBulkUpdater;
+    private final MemberBatchInserter memberBatchInserter;
+
     public Member save(Member member){
         em.persist(member);
         return member;
     }
 
+    // 배치 크기마다 flush(JDBC 배치 전송) + clear(영속성 컨텍스트 비우기)
+    public int saveAllBatched(Iterable<? extends Member> members){
+        return memberBatchInserter.persistAll(members);
+    }
+
     public void delete(Member member){
         em.remove(member);
     }
@@ -67,9 +77,8 @@ public class MemberJpaRepository {
 
     // 벌크성 수정 쿼리란 여러 데이터들을 한번에 업데이트 하는 쿼리
     // int 로 반환은 업데이트가 성공하면 건당 1을 반환
+    // 영속성 컨텍스트에 올라와 있던 대상 member 들은 DB 값으로 refresh 되어 옛 나이가 남지 않음
     public int bulkAgePlus(int age){
-        return em.createQuery("update Member m set m.age = m.age + 1 where m.age >= :age")
-                .setParameter("age",age)
-                .executeUpdate();
+        return memberBulkUpdater.agePlus(age, PersistenceContextSync.REFRESH).size();
     }
 }
\ No newline at end of file
@@ -8,10 +8,12 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 import study.datajpa.dto.MemberDto;
+import study.datajpa.dto.MemberView;
 import study.datajpa.entity.Member;
+import study.datajpa.readonly.ReadOnlyQuery;
 
-import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -40,17 +42,23 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
     @Query("select m from Member m where m.username = :username and m.age = :age")
     List<Member> findUser(@Param("username") String username, @Param("age") int age);
 
+    // 엔티티를 돌려주지 않는 조회 전용 메서드는 @ReadOnlyQuery - 트랜잭션 밖에서 호출되면 readOnly 트랜잭션으로 실행
+    @ReadOnlyQuery
     @Query("select m.username from Member m")
     List<String> findUsernameList();
 
     // DTO 를 선언해서 JPQL 사용하는 방법
     // 선언하여 사용할 DTO 를 Query 에서 new study.datajpa.dto.MemberDto 이런 식으로 사용하면 됨
+    @ReadOnlyQuery
     @Query("select new study.datajpa.dto.MemberDto(m.id, m.username, t.name) from Member m join m.team t")
     List<MemberDto> findMemberDto();
 
-    // @Param 을 통해 Query에 바인딩
-    @Query("select m from Member m where m.username in :names")
-    List<Member> findByNames(@Param("names") Collection<String> names);
+    // 페이지에 필요한 컬럼만 조회하는 인터페이스 projection
+    // 엔티티를 만들지 않으므로 영속성 컨텍스트 등록/스냅샷이 없고, team 은 이름만 left join 으로 가져옴
+    @ReadOnlyQuery
+    @Query(value = "select m.id as id, m.username as username, t.name as teamName from Member m left join m.team t",
+            countQuery = "select count(m) from Member m")
+    Page<MemberView> findMemberViews(Pageable pageable);
 
     // JPA 는 다양한 반환타입을 가질 수 있다.
     List<Member> findListByUsername(String username);
@@ -61,11 +69,15 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
     // Optional 을 주면 값이 없어도 null 이 아닌 Optional.empty 을 내보냄
     Optional<Member> findOptionalByUsername(String username);
 
+    // 가입 시 중복 확인용 - 없는 이름이면 username filter 에서 쿼리 없이 false (UsernameLookupAspect)
+    boolean existsByUsername(String username);
+
     // spring jpa 에서는 Pageable 만 넘기면 paging 기능을 사용할 수 있음
 
-    @Query(value = "select m from Member m left join m.team t",
-            countQuery = "select count(m) from Member m")
-    Page<Member> findByAge(int age, Pageable pageble);
+    // 메서드 이름만 보고 age 로 거른다고 생각하기 쉬우므로 조건을 직접 명시 (idx_member_age_username 사용)
+    @Query(value = "select m from Member m left join m.team t where m.age = :age",
+            countQuery = "select count(m) from Member m where m.age = :age")
+    Page<Member> findByAge(@Param("age") int age, Pageable pageble);
     // page 보다 slice 는 반환성이 훨신 빠르고 조회 성능이 좋음
     // 대신 totalCount 조회가 안됨
     //Slice<Member> findByAge(int age, Pageable pageble);
@@ -75,8 +87,12 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
     // Modifying 을 호출해야 기본 jpa 의 executeUpdate 같이 업데이트를 수행함(최신버전에는 없어도 에러안나는데 확인 필요)
     // jpa 는 영속성 컨텍스트를 사용하는데 bulk 연산은 그걸 무시하고 db에 update를 해버림
     // Modifying 에 clear 옵션 true 로 넣으면 바로 영속성컨텍스트 clear 해버림
+    // 쓰기 트랜잭션으로 실행되어야 primary 로 라우팅됨
+    // 긴 트랜잭션에서 영속성 컨텍스트 전체를 비우기 부담스러우면 bulkAgePlus(age, PersistenceContextSync) 사용
+    @Transactional
     @Modifying(clearAutomatically = true)
-    @Query("update Member m set m.age = m.age + 1 where m.age >= :age")
+    // bulk 연산은 @Version 을 자동으로 올리지 않으므로 직접 증가시켜 동시에 수정 중인 트랜잭션이 충돌을 감지하게 함
+    @Query("update Member m set m.age = m.age + 1, m.version = m.version + 1 where m.age >= :age")
     int bulkAgePlus(@Param("age") int age);
 
     // fetch join 이란 Member를 조회할 때 연관되어있는 team을 한방에 같이 조회해버림
@@ -96,9 +112,14 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
     @EntityGraph(attributePaths = ("team"))
     List<Member> findEntityGraphByUsername(@Param("username") String username);
 
+    // 읽기 전용 트랜잭션 -> 복제본으로 라우팅
+    @Transactional(readOnly = true)
     @QueryHints(value = @QueryHint(name = "org.hibernate.readOnly", value = "true"))
     Member findReadOnlyByUsername(String username);
 
+    // 락은 primary 에서 잡아야 하므로 쓰기 트랜잭션
+    // 같은 행을 동시에 수정하는 요청들이 락 대기로 줄을 서게 됨, 충돌이 드물면 @Version + OptimisticRetryExecutor 가 유리
+    @Transactional
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     List<Member> findLockByUsername(String username);
 }
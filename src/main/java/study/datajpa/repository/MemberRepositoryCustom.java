@@ -1,10 +1,58 @@
 package study.datajpa.repository;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import study.datajpa.dto.MemberDto;
 import study.datajpa.entity.Member;
+import study.datajpa.readonly.ReadOnlyQuery;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
 
 public interface MemberRepositoryCustom {
     List<Member> findMemberCustom();
 
+    // username in (...) 조회
+    // 크기에 따라 한번에(in 파라미터 padding) / 묶음으로 나눠서 / 임시 테이블 join 으로 조회하고 결과를 합쳐서 반환
+    List<Member> findByNames(Collection<String> names);
+
+    // keyset(seek) 페이징 - cursor 가 가리키는 정렬 키 다음 행부터 size 만큼 조회
+    Slice<Member> findMemberKeyset(MemberCursor cursor, int size);
+
+    // JDBC 배치 크기 단위로 flush/clear 하면서 대량 저장, 저장한 건수를 반환
+    int saveAllBatched(Iterable<? extends Member> members);
+
+    // 전체 member 를 List 로 올리지 않고 fetchSize 단위로 커서를 넘기며 읽음
+    // 반환된 Stream 은 호출한 쪽의 트랜잭션 안에서 소비하고 반드시 close 해야 함
+    Stream<MemberDto> streamMemberDto(int fetchSize);
+
+    // 페이지 내용은 매번 조회하지만 totalElements 는 캐시된 count(또는 추정치)를 사용
+    Page<Member> findAllCountCached(Pageable pageable, CountMode countMode);
+
+    Page<Member> findByAgeCountCached(int age, Pageable pageable);
+
+    // 생성자 DTO projection 페이지 - id, username, team 이름만 조회하고 count 는 findAllCountCached 와 같은 방식
+    @ReadOnlyQuery
+    Page<MemberDto> findMemberDtoPage(Pageable pageable, CountMode countMode);
+
+    // 영향받은 member 만 영속성 컨텍스트/2차 캐시에서 맞추는 bulk update
+    // @Modifying(clearAutomatically = true) 와 달리 관계없는 엔티티는 그대로 남음
+    int bulkAgePlus(int age, PersistenceContextSync sync);
+
+    // 아직 처리되지 않은 member 를 최대 limit 건 가져오면서 행 락을 잡음 (FOR UPDATE SKIP LOCKED)
+    // 다른 워커가 락을 잡은 행은 기다리지 않고 건너뛰므로 여러 워커가 서로 막지 않고 나눠 가져감
+    // 락은 호출한 쪽 트랜잭션이 끝날 때 풀리므로 반드시 트랜잭션 안에서 호출하고, 같은 트랜잭션에서 markProcessed 까지 해야 함
+    List<Member> claimUnprocessed(int limit);
+
+    // 서로 독립적인 조회를 동시에 실행하기 위한 비동기 버전
+    // memberQueryExecutor 에서 작업마다 별도의 읽기 전용 트랜잭션(=별도의 EntityManager)으로 실행됨
+    // 호출한 쪽의 트랜잭션에 참여하지 않으므로 아직 커밋하지 않은 변경은 보이지 않음
+    CompletableFuture<List<MemberDto>> findMemberDtoAsync();
+
+    CompletableFuture<List<String>> findUsernameListAsync();
+
+    CompletableFuture<Long> countAsync();
 }
@@ -1,20 +1,316 @@
 package study.datajpa.repository;
 
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.TypedQuery;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.LockOptions;
+import org.hibernate.Session;
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.jpa.SpecHints;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.cache.MemberCountCache;
+import study.datajpa.config.AsyncQueryConfig;
+import study.datajpa.dto.MemberDto;
 import study.datajpa.entity.Member;
 
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 // 사용자 정의 리포지토리 구현 시 정의하고자하는 레파지토리의 이름+Impl 을 따야 한다
 @RequiredArgsConstructor
 public class MemberRepositoryImpl implements MemberRepositoryCustom{
 
     private final EntityManager em;
+    private final MemberCountCache memberCountCache;
+    private final PlatformTransactionManager transactionManager;
+    @Qualifier(AsyncQueryConfig.MEMBER_QUERY_EXECUTOR)
+    private final Executor memberQueryExecutor;
+    // 리포지토리 자신을 주입받으면 순환 참조가 되므로 사용 시점에 꺼냄
+    private final ObjectProvider<MemberRepository> memberRepository;
+    private final MemberBulkUpdater memberBulkUpdater;
+    private final MemberBatchInserter memberBatchInserter;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:100}")
+    private int batchSize;
+
+    @Value("${app.in-query.chunk-size:512}")
+    private int inChunkSize;
+
+    @Value("${app.in-query.parallel-chunks:true}")
+    private boolean parallelChunks;
+
+    @Value("${app.in-query.temp-table-threshold:10000}")
+    private int tempTableThreshold;
 
     @Override
     public List<Member> findMemberCustom() {
         return em.createQuery("select m from Member m")
                 .getResultList();
     }
+
+    // 리스트 크기마다 SQL 이 달라지면 DB 의 파싱/실행 계획 캐시를 매번 새로 채우게 되므로
+    // - chunk-size 이하: in_clause_parameter_padding 으로 2의 거듭제곱 개수의 SQL 만 만들어짐
+    // - chunk-size 초과: chunk-size 씩 나눠서 조회 (같은 SQL 반복), 스레드에 묶인 EntityManager 가 없으면 동시에 조회
+    // - temp-table-threshold 이상: 임시 테이블에 이름을 배치 insert 하고 join 한번으로 조회
+    @Override
+    public List<Member> findByNames(Collection<String> names) {
+        List<String> distinct = new ArrayList<>(new LinkedHashSet<>(names));
+        if (distinct.isEmpty()) {
+            return new ArrayList<>();
+        }
+        if (distinct.size() <= inChunkSize) {
+            return findByNamesIn(distinct);
+        }
+        boolean inTransaction = TransactionSynchronizationManager.isActualTransactionActive();
+        if (distinct.size() >= tempTableThreshold) {
+            if (inTransaction) {
+                return findByNamesTempTable(distinct);
+            }
+            // 임시 테이블은 커넥션(세션)마다 따로이므로 insert 와 join 이 같은 커넥션에서 실행되도록 트랜잭션으로 묶음
+            return new TransactionTemplate(transactionManager).execute(status -> findByNamesTempTable(distinct));
+        }
+
+        List<List<String>> chunks = new ArrayList<>();
+        for (int from = 0; from < distinct.size(); from += inChunkSize) {
+            chunks.add(distinct.subList(from, Math.min(from + inChunkSize, distinct.size())));
+        }
+        List<Member> result = new ArrayList<>();
+        // 트랜잭션이 없어도 요청에 묶인 EntityManager(open-in-view)가 있으면 그 영속성 컨텍스트에서 조회해야
+        // 지연 로딩이 되는 관리 상태 엔티티를 돌려주므로 순서대로, 묶인 EntityManager 가 없을 때만 동시에
+        boolean boundEntityManager = TransactionSynchronizationManager.hasResource(em.getEntityManagerFactory());
+        if (boundEntityManager || !parallelChunks) {
+            chunks.forEach(chunk -> result.addAll(findByNamesIn(chunk)));
+            return result;
+        }
+        List<CompletableFuture<List<Member>>> futures = chunks.stream()
+                .map(chunk -> async(repository -> findByNamesIn(chunk)))
+                .toList();
+        futures.forEach(future -> result.addAll(future.join()));
+        return result;
+    }
+
+    private List<Member> findByNamesIn(List<String> names) {
+        return em.createQuery("select m from Member m where m.username in :names", Member.class)
+                .setParameter("names", names)
+                .getResultList();
+    }
+
+    // H2 의 TRANSACTIONAL 임시 테이블은 만들어도 진행중인 트랜잭션을 커밋하지 않음
+    private List<Member> findByNamesTempTable(List<String> names) {
+        em.unwrap(Session.class).doWork(connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("create local temporary table if not exists member_name_filter" +
+                        " (username varchar(255) primary key) transactional");
+                statement.execute("delete from member_name_filter");
+            }
+            try (PreparedStatement insert = connection.prepareStatement("insert into member_name_filter values (?)")) {
+                for (int i = 0; i < names.size(); i++) {
+                    insert.setString(1, names.get(i));
+                    insert.addBatch();
+                    if ((i + 1) % batchSize == 0) {
+                        insert.executeBatch();
+                    }
+                }
+                insert.executeBatch();
+            }
+        });
+        List<Member> result = em.createNativeQuery("select m.* from member m" +
+                        " join member_name_filter f on f.username = m.username", Member.class)
+                .getResultList();
+        em.unwrap(Session.class).doWork(connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("delete from member_name_filter");
+            }
+        });
+        return result;
+    }
+
+    @Override
+    public Slice<Member> findMemberKeyset(MemberCursor cursor, int size) {
+        // offset 대신 where 조건으로 마지막 키 이후만 읽기 때문에 인덱스를 타고 바로 시작 위치로 이동(seek)
+        String op = cursor.isDescending() ? "<" : ">";
+        String dir = cursor.isDescending() ? "desc" : "asc";
+        boolean byUsername = cursor.getSortKey() == MemberCursor.SortKey.USERNAME;
+
+        // username 이 null 인 행은 가장 작은 값 - DB 마다 다른 null 정렬 순서를 nulls first/last 로 고정하고 조건도 그에 맞춤
+        boolean nullPosition = byUsername && cursor.hasPosition() && cursor.getUsername() == null;
+        StringBuilder jpql = new StringBuilder("select m from Member m");
+        if (cursor.hasPosition()) {
+            if (nullPosition) {
+                // 오름차순: null 다음은 남은 null, 그 뒤로 null 아닌 행 전부 / 내림차순: 남은 null 뿐
+                jpql.append(" where (m.username is null and m.id ").append(op).append(" :id)");
+                if (!cursor.isDescending()) {
+                    jpql.append(" or m.username is not null");
+                }
+            } else if (byUsername) {
+                jpql.append(" where m.username ").append(op).append(" :username")
+                        .append(" or (m.username = :username and m.id ").append(op).append(" :id)");
+                if (cursor.isDescending()) {
+                    jpql.append(" or m.username is null");
+                }
+            } else {
+                jpql.append(" where m.id ").append(op).append(" :id");
+            }
+        }
+        if (byUsername) {
+            jpql.append(" order by m.username ").append(dir).append(cursor.isDescending() ? " nulls last" : " nulls first")
+                    .append(", m.id ").append(dir);
+        } else {
+            jpql.append(" order by m.id ").append(dir);
+        }
+
+        // 다음 페이지 존재 여부를 count 쿼리 없이 알기 위해 하나 더 조회
+        TypedQuery<Member> query = em.createQuery(jpql.toString(), Member.class)
+                .setMaxResults(size + 1);
+        if (cursor.hasPosition()) {
+            query.setParameter("id", cursor.getId());
+            if (byUsername && !nullPosition) {
+                query.setParameter("username", cursor.getUsername());
+            }
+        }
+
+        List<Member> result = query.getResultList();
+        boolean hasNext = result.size() > size;
+        List<Member> content = hasNext ? new ArrayList<>(result.subList(0, size)) : result;
+        return new SliceImpl<>(content, PageRequest.ofSize(size), hasNext);
+    }
+
+    // 배치 크기마다 flush + clear, 구현은 MemberJpaRepository 와 같이 쓰는 MemberBatchInserter
+    @Override
+    @Transactional
+    public int saveAllBatched(Iterable<? extends Member> members) {
+        return memberBatchInserter.persistAll(members);
+    }
+
+    // DTO 로 바로 조회하기 때문에 영속성 컨텍스트에 엔티티가 쌓이지 않고,
+    // getResultStream 은 ScrollableResults 기반이라 fetchSize 만큼씩만 JDBC 에서 가져옴
+    // 세션 전체를 읽기 전용으로 쓰려면 readOnly 트랜잭션 안에서 호출
+    @Override
+    public Stream<MemberDto> streamMemberDto(int fetchSize) {
+        return em.createQuery("select new study.datajpa.dto.MemberDto(m.id, m.username, t.name)" +
+                        " from Member m left join m.team t order by m.id", MemberDto.class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream();
+    }
+
+    @Override
+    public Page<Member> findAllCountCached(Pageable pageable, CountMode countMode) {
+        List<Member> content = pagedQuery("select m from Member m", pageable, Member.class).getResultList();
+        return PageableExecutionUtils.getPage(content, pageable, () -> memberTotal(countMode));
+    }
+
+    @Override
+    public Page<MemberDto> findMemberDtoPage(Pageable pageable, CountMode countMode) {
+        List<MemberDto> content = pagedQuery("select new study.datajpa.dto.MemberDto(m.id, m.username, t.name)" +
+                " from Member m left join m.team t", pageable, MemberDto.class).getResultList();
+        return PageableExecutionUtils.getPage(content, pageable, () -> memberTotal(countMode));
+    }
+
+    private long memberTotal(CountMode countMode) {
+        return countMode == CountMode.ESTIMATED
+                ? estimateMemberTotal()
+                : memberCountCache.get("all", () -> em.createQuery("select count(m) from Member m", Long.class)
+                        .getSingleResult());
+    }
+
+    @Override
+    public Page<Member> findByAgeCountCached(int age, Pageable pageable) {
+        List<Member> content = pagedQuery("select m from Member m where m.age = :age", pageable, Member.class)
+                .setParameter("age", age)
+                .getResultList();
+        return PageableExecutionUtils.getPage(content, pageable,
+                () -> memberCountCache.get("age:" + age, () -> em.createQuery(
+                                "select count(m) from Member m where m.age = :age", Long.class)
+                        .setParameter("age", age)
+                        .getSingleResult()));
+    }
+
+    @Override
+    @Transactional
+    public int bulkAgePlus(int age, PersistenceContextSync sync) {
+        return memberBulkUpdater.agePlus(age, sync).size();
+    }
+
+    // lock timeout 을 SKIP_LOCKED(-2) 로 주면 Hibernate 가 dialect 에 맞는 skip locked 구문으로 바꿔줌 (H2, PostgreSQL, MySQL 8 등)
+    // 지원하지 않는 dialect 에서는 일반 FOR UPDATE 로 실행되어 락이 풀릴 때까지 기다림
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public List<Member> claimUnprocessed(int limit) {
+        return em.createQuery("select m from Member m where m.processed = false order by m.id", Member.class)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .setHint(SpecHints.HINT_SPEC_LOCK_TIMEOUT, LockOptions.SKIP_LOCKED)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public CompletableFuture<List<MemberDto>> findMemberDtoAsync() {
+        return async(MemberRepository::findMemberDto);
+    }
+
+    @Override
+    public CompletableFuture<List<String>> findUsernameListAsync() {
+        return async(MemberRepository::findUsernameList);
+    }
+
+    @Override
+    public CompletableFuture<Long> countAsync() {
+        return async(MemberRepository::count);
+    }
+
+    // 작업 스레드에서 새 읽기 전용 트랜잭션을 열고 그 안에서 조회
+    // 트랜잭션이 스레드에 묶인 EntityManager 를 새로 만들기 때문에 작업끼리 영속성 컨텍스트를 공유하지 않음
+    private <T> CompletableFuture<T> async(Function<MemberRepository, T> query) {
+        TransactionTemplate readOnlyTx = new TransactionTemplate(transactionManager);
+        readOnlyTx.setReadOnly(true);
+        return CompletableFuture.supplyAsync(
+                () -> readOnlyTx.execute(status -> query.apply(memberRepository.getObject())),
+                memberQueryExecutor);
+    }
+
+    private <T> TypedQuery<T> pagedQuery(String jpql, Pageable pageable, Class<T> resultType) {
+        TypedQuery<T> query = em.createQuery(QueryUtils.applySorting(jpql, pageable.getSort(), "m"), resultType);
+        if (pageable.isPaged()) {
+            query.setFirstResult((int) pageable.getOffset());
+            query.setMaxResults(pageable.getPageSize());
+        }
+        return query;
+    }
+
+    // H2 가 테이블마다 관리하는 행 수 추정치 - count(*) 처럼 테이블을 훑지 않음
+    // 추정치를 제공하지 않는 경우에만 캐시된 정확한 count 로 대체
+    private long estimateMemberTotal() {
+        List<?> result = em.createNativeQuery("select row_count_estimate from information_schema.tables" +
+                        " where table_schema = schema() and table_name = 'MEMBER'")
+                .getResultList();
+        if (!result.isEmpty() && result.get(0) instanceof Number estimate) {
+            return estimate.longValue();
+        }
+        return memberCountCache.get("all", () -> em.createQuery("select count(m) from Member m", Long.class)
+                .getSingleResult());
+    }
 }
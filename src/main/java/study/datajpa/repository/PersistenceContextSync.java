@@ -0,0 +1,9 @@
+package study.datajpa.repository;
+
+// bulk update 후 영속성 컨텍스트에 남아있는 대상 엔티티를 어떻게 맞출지
+public enum PersistenceContextSync {
+    // update 가 돌려준 값을 같은 인스턴스에 덮어씀, 호출한 쪽이 들고 있는 참조도 최신 값이 됨 (추가 select 없음)
+    REFRESH,
+    // 영속성 컨텍스트에서 떼어냄, 다음 조회 때 새 인스턴스로 다시 읽힘 (들고 있던 참조는 옛 값 그대로)
+    DETACH
+}
@@ -0,0 +1,21 @@
+package study.datajpa.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.entity.ScanCheckpoint;
+
+import java.util.List;
+
+public interface ScanCheckpointRepository extends JpaRepository<ScanCheckpoint, Long> {
+
+    List<ScanCheckpoint> findByJobName(String jobName);
+
+    // 작업이 끝나거나 처음부터 다시 돌릴 때 그 작업의 체크포인트를 한번에 삭제
+    @Transactional
+    @Modifying
+    @Query("delete from ScanCheckpoint c where c.jobName = :jobName")
+    int deleteByJobName(@Param("jobName") String jobName);
+}
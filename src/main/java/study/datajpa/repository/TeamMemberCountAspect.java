@@ -0,0 +1,23 @@
+package study.datajpa.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.annotation.AfterReturning;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+// deleteAllInBatch 같은 member bulk 삭제는 Hibernate 이벤트가 없어서 TeamMemberCountListener 가 증감을 알 수 없으므로
+// 호출이 끝난 뒤 팀 인원을 member 테이블 기준으로 다시 계산
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class TeamMemberCountAspect {
+
+    // 리포지토리 빈보다 먼저 만들어지는 aspect 에서 리포지토리를 바로 주입받지 않도록 사용 시점에 꺼냄
+    private final ObjectProvider<TeamRepository> teamRepository;
+
+    @AfterReturning("execution(* study.datajpa.repository.MemberRepository.*InBatch(..))")
+    public void recount() {
+        teamRepository.getObject().recountMembers();
+    }
+}
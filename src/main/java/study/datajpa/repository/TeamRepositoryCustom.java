@@ -0,0 +1,21 @@
+package study.datajpa.repository;
+
+import study.datajpa.entity.Team;
+
+import java.util.Collection;
+import java.util.Map;
+
+public interface TeamRepositoryCustom {
+
+    // member id 목록에 대한 team 을 IN 쿼리 한 번으로 조회 (member id -> team)
+    // 팀이 없는 member 는 결과에 포함되지 않음
+    Map<Long, Team> findTeamsByMemberIds(Collection<Long> memberIds);
+
+    // team id 목록의 인원(Team.memberCount)을 쿼리 한 번으로 조회 (team id -> 인원)
+    // members 컬렉션이나 Team 엔티티를 로딩하지 않고, 없는 팀은 결과에 포함되지 않음
+    Map<Long, Integer> findMemberCounts(Collection<Long> teamIds);
+
+    // 모든 팀의 member_count 를 member 테이블 기준으로 다시 계산하고 바뀐 팀 수를 반환
+    // 이벤트를 거치지 않는 bulk 연산 뒤나 직접 SQL 로 member 를 넣은 뒤에 사용
+    int recountMembers();
+}
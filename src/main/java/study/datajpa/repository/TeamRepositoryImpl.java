@@ -0,0 +1,68 @@
+package study.datajpa.repository;
+
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.entity.Team;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// DataLoader 처럼 여러 건의 연관 엔티티 조회 요청을 모아서 한 번에 가져오는 용도
+@RequiredArgsConstructor
+public class TeamRepositoryImpl implements TeamRepositoryCustom {
+
+    private final EntityManager em;
+
+    @Override
+    public Map<Long, Team> findTeamsByMemberIds(Collection<Long> memberIds) {
+        Map<Long, Team> teams = new LinkedHashMap<>();
+        if (memberIds.isEmpty()) {
+            return teams;
+        }
+        List<Object[]> rows = em.createQuery(
+                        "select m.id, t from Member m join m.team t where m.id in :memberIds", Object[].class)
+                .setParameter("memberIds", memberIds)
+                .getResultList();
+        for (Object[] row : rows) {
+            teams.put((Long) row[0], (Team) row[1]);
+        }
+        return teams;
+    }
+
+    // member_count 는 member insert/delete 가 flush 될 때 갱신되는데, team 만 조회하는 쿼리는 member 변경이 있어도 자동 flush 하지 않음
+    // 같은 트랜잭션의 아직 flush 되지 않은 member 변경이 반영된 값을 보도록 먼저 flush
+    @Override
+    public Map<Long, Integer> findMemberCounts(Collection<Long> teamIds) {
+        Map<Long, Integer> counts = new LinkedHashMap<>();
+        if (teamIds.isEmpty()) {
+            return counts;
+        }
+        if (em.isJoinedToTransaction()) {
+            em.flush();
+        }
+        List<Object[]> rows = em.createQuery(
+                        "select t.id, t.memberCount from Team t where t.id in :teamIds", Object[].class)
+                .setParameter("teamIds", teamIds)
+                .getResultList();
+        for (Object[] row : rows) {
+            counts.put((Long) row[0], (Integer) row[1]);
+        }
+        return counts;
+    }
+
+    // 값이 다른 팀만 update 하고, 2차 캐시의 team 엔트리는 member_count 가 옛 값이므로 리전 전체를 비움
+    @Override
+    @Transactional
+    public int recountMembers() {
+        em.flush();
+        int updated = em.createNativeQuery("update team t set member_count =" +
+                        " (select count(*) from member m where m.team_id = t.team_id)" +
+                        " where member_count <> (select count(*) from member m where m.team_id = t.team_id)")
+                .executeUpdate();
+        em.getEntityManagerFactory().getCache().evict(Team.class);
+        return updated;
+    }
+}
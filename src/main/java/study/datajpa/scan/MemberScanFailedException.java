@@ -0,0 +1,19 @@
+package study.datajpa.scan;
+
+import lombok.Getter;
+
+// 구간 처리 중 예외로 중단됨, 실패한 구간은 롤백되고 completedChunks 개 구간은 체크포인트와 함께 커밋되어 있음
+// 같은 작업 이름으로 다시 실행하면 끝나지 않은 구간부터 이어서 처리
+@Getter
+public class MemberScanFailedException extends RuntimeException {
+
+    private final String jobName;
+    private final int completedChunks;
+
+    public MemberScanFailedException(String jobName, int completedChunks, Throwable cause) {
+        super("member scan " + jobName + " failed after " + completedChunks + " completed chunks: " + cause.getMessage(),
+                cause);
+        this.jobName = jobName;
+        this.completedChunks = completedChunks;
+    }
+}
@@ -0,0 +1,20 @@
+package study.datajpa.scan;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter @Setter
+@ConfigurationProperties("app.member-scan")
+public class MemberScanProperties {
+
+    // member id 구간 하나의 크기 - 구간마다 트랜잭션 하나, 체크포인트 하나
+    // 재개할 때 구간 경계가 같아야 하므로 체크포인트가 남은 작업은 같은 값으로 다시 실행해야 함
+    private int chunkSize = 10_000;
+
+    // 동시에 처리하는 구간 수, 0 이면 CPU 코어 수 (커넥션 풀 크기를 넘으면 커넥션 대기만 늘어남)
+    private int parallelism = 0;
+
+    // 구간 안에서 이 행 수마다 flush + clear 해서 영속성 컨텍스트 크기를 일정하게 유지
+    private int clearInterval = 1_000;
+}
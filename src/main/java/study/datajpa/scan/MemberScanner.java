@@ -0,0 +1,199 @@
+package study.datajpa.scan;
+
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.ScanCheckpoint;
+import study.datajpa.repository.ScanCheckpointRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+// member 테이블 전체를 훑는 배치 작업을 id 구간(chunk-size)으로 나눠 parallelism 개 워커가 동시에 처리
+// - 구간마다 트랜잭션 하나 = 스레드에 묶인 EntityManager 하나, 구간 안에서는 clear-interval 행마다 keyset 으로 읽고 flush + clear
+// - 구간의 변경과 ScanCheckpoint 가 같은 트랜잭션으로 커밋되므로, 실패 후 같은 작업 이름으로 다시 실행하면 끝난 구간은 건너뜀
+// - 구간 경계는 chunk-size 의 배수로 맞추므로 중간에 member 가 추가/삭제되어도 재개할 때 경계가 달라지지 않음
+// - 워커는 ForkJoinPool, 가상 스레드 모드(spring.threads.virtual.enabled)면 가상 스레드
+//   어느 쪽이든 동시에 잡는 커넥션 수는 parallelism 이므로 커넥션 풀 크기 안에서 정해야 함
+// 모든 구간이 끝나면 그 작업의 체크포인트를 지워서 같은 이름으로 다시 처음부터 실행할 수 있음
+@Slf4j
+@Component
+@EnableConfigurationProperties(MemberScanProperties.class)
+public class MemberScanner {
+
+    private final EntityManager em;
+    private final TransactionTemplate transactionTemplate;
+    private final ScanCheckpointRepository checkpointRepository;
+    private final MemberScanProperties properties;
+    private final boolean virtualThreads;
+
+    private final Set<String> running = ConcurrentHashMap.newKeySet();
+
+    public MemberScanner(EntityManager em,
+                         PlatformTransactionManager transactionManager,
+                         ScanCheckpointRepository checkpointRepository,
+                         MemberScanProperties properties,
+                         @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.em = em;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.checkpointRepository = checkpointRepository;
+        this.properties = properties;
+        this.virtualThreads = virtualThreads;
+    }
+
+    public ScanResult scan(String jobName, Consumer<Member> processor) {
+        return scan(jobName, properties.getParallelism(), processor);
+    }
+
+    // processor 는 워커 스레드에서 구간 트랜잭션 안에서 호출됨, 엔티티를 수정하면 구간이 끝날 때까지 배치로 update
+    // processor 가 예외를 던지면 그 구간은 롤백, 새 구간은 더 시작하지 않고 진행 중인 구간이 끝나길 기다린 뒤 MemberScanFailedException
+    public ScanResult scan(String jobName, int parallelism, Consumer<Member> processor) {
+        if (!running.add(jobName)) {
+            throw new IllegalStateException("member scan " + jobName + " is already running");
+        }
+        try {
+            return run(jobName, parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors(), processor);
+        } finally {
+            running.remove(jobName);
+        }
+    }
+
+    private ScanResult run(String jobName, int parallelism, Consumer<Member> processor) {
+        long start = System.nanoTime();
+        int chunkSize = properties.getChunkSize();
+        Set<Long> completed = completedChunks(jobName, chunkSize);
+
+        List<Long> chunks = new ArrayList<>();
+        Object[] range = transactionTemplate.execute(status ->
+                em.createQuery("select min(m.id), max(m.id) from Member m", Object[].class).getSingleResult());
+        if (range != null && range[0] != null) {
+            long first = Math.floorDiv((Long) range[0], chunkSize) * (long) chunkSize;
+            long last = (Long) range[1];
+            for (long chunkStart = first; chunkStart <= last; chunkStart += chunkSize) {
+                if (!completed.contains(chunkStart)) {
+                    chunks.add(chunkStart);
+                }
+            }
+        }
+        int skipped = completed.size();
+
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger done = new AtomicInteger();
+        AtomicLong rows = new AtomicLong();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Runnable worker = () -> {
+            int index;
+            while (failure.get() == null && (index = next.getAndIncrement()) < chunks.size()) {
+                try {
+                    rows.addAndGet(processChunk(jobName, chunks.get(index), chunkSize, processor));
+                    done.incrementAndGet();
+                } catch (RuntimeException | Error e) {
+                    failure.compareAndSet(null, e);
+                }
+            }
+        };
+
+        int workers = Math.max(1, Math.min(parallelism, chunks.size()));
+        ForkJoinPool pool = virtualThreads ? null : new ForkJoinPool(workers);
+        Executor executor = pool != null ? pool : virtualThreadExecutor();
+        try {
+            List<CompletableFuture<Void>> futures = new ArrayList<>(workers);
+            for (int i = 0; i < workers; i++) {
+                futures.add(CompletableFuture.runAsync(worker, executor));
+            }
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+        } finally {
+            if (pool != null) {
+                pool.shutdown();
+            }
+        }
+
+        if (failure.get() != null) {
+            throw new MemberScanFailedException(jobName, skipped + done.get(), failure.get());
+        }
+        checkpointRepository.deleteByJobName(jobName);
+
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        ScanResult result = new ScanResult(jobName, parallelism, skipped + done.get(), skipped, rows.get(),
+                elapsedMillis, elapsedMillis == 0 ? rows.get() : rows.get() * 1000.0 / elapsedMillis);
+        log.info("member scan {} processed {} rows in {} chunks ({} skipped), {} ms with {} workers ({} rows/s)",
+                jobName, result.rows(), result.chunks(), skipped, elapsedMillis, workers,
+                Math.round(result.rowsPerSecond()));
+        return result;
+    }
+
+    // 체크포인트가 다른 chunk-size 로 만들어졌으면 구간 경계가 맞지 않아 일부 행을 두번 처리하거나 빠뜨리게 되므로 거부
+    private Set<Long> completedChunks(String jobName, int chunkSize) {
+        Map<Integer, List<ScanCheckpoint>> bySize = checkpointRepository.findByJobName(jobName).stream()
+                .collect(Collectors.groupingBy(ScanCheckpoint::getChunkSize));
+        if (bySize.keySet().stream().anyMatch(size -> size != chunkSize)) {
+            throw new IllegalStateException("member scan " + jobName + " has checkpoints with chunk size "
+                    + bySize.keySet() + ", resume it with the same chunk size or delete its checkpoints");
+        }
+        return bySize.getOrDefault(chunkSize, List.of()).stream()
+                .map(ScanCheckpoint::getChunkStart)
+                .collect(Collectors.toSet());
+    }
+
+    // 트랜잭션 하나 안에서 [chunkStart, chunkStart + chunkSize) 를 id 순으로 clear-interval 행씩 읽어 처리
+    // 2차 캐시는 한번 읽고 버릴 행들로 채우지 않도록 IGNORE (수정된 member 의 캐시 무효화는 그대로 됨)
+    private long processChunk(String jobName, long chunkStart, int chunkSize, Consumer<Member> processor) {
+        int clearInterval = properties.getClearInterval();
+        long chunkEnd = chunkStart + chunkSize;
+        Long rows = transactionTemplate.execute(status -> {
+            em.unwrap(Session.class).setCacheMode(CacheMode.IGNORE);
+            long count = 0;
+            long lastId = chunkStart - 1;
+            List<Member> members;
+            do {
+                members = em.createQuery(
+                                "select m from Member m where m.id > :lastId and m.id < :chunkEnd order by m.id",
+                                Member.class)
+                        .setParameter("lastId", lastId)
+                        .setParameter("chunkEnd", chunkEnd)
+                        .setMaxResults(clearInterval)
+                        .getResultList();
+                for (Member member : members) {
+                    processor.accept(member);
+                }
+                if (!members.isEmpty()) {
+                    lastId = members.get(members.size() - 1).getId();
+                    count += members.size();
+                }
+                em.flush();
+                em.clear();
+            } while (members.size() == clearInterval);
+
+            em.persist(new ScanCheckpoint(jobName, chunkStart, chunkSize, count, LocalDateTime.now()));
+            return count;
+        });
+        return rows == null ? 0 : rows;
+    }
+
+    // Executors.newVirtualThreadPerTaskExecutor 는 Java 21 API 라서 Java 17 로도 컴파일되도록 Spring 의 executor 로 만듦
+    private Executor virtualThreadExecutor() {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("member-scan-");
+        executor.setVirtualThreads(true);
+        return executor;
+    }
+}
@@ -0,0 +1,6 @@
+package study.datajpa.scan;
+
+// skippedChunks: 이전 실행에서 이미 끝나서(체크포인트) 건너뛴 구간 수
+public record ScanResult(String jobName, int parallelism, int chunks, int skippedChunks, long rows,
+                         long elapsedMillis, double rowsPerSecond) {
+}
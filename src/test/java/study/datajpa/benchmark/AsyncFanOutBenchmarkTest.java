@@ -0,0 +1,51 @@
+package study.datajpa.benchmark;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.repository.MemberRepository;
+
+import java.util.concurrent.CompletableFuture;
+
+import static study.datajpa.benchmark.BenchmarkSupport.*;
+
+// /members/summary 가 하는 세 조회(findMemberDto, findUsernameList, count)를
+// 한 스레드에서 차례로 실행한 경우와 memberQueryExecutor 로 동시에 실행한 경우의 지연시간 비교
+@PerformanceTest
+class AsyncFanOutBenchmarkTest {
+
+    private static final int MEMBERS = 50_000;
+
+    @Autowired MemberRepository memberRepository;
+    @Autowired JdbcTemplate jdbcTemplate;
+    @Autowired PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void seed() {
+        if (memberRepository.count() < MEMBERS) {
+            seedMembers(jdbcTemplate, MEMBERS);
+            // findMemberDto 는 team 과 inner join 이므로 팀을 붙여둠
+            jdbcTemplate.update("insert into team (team_id, name, version) values (next value for team_seq, 'benchTeam', 0)");
+            jdbcTemplate.update("update member set team_id = (select max(team_id) from team) where team_id is null");
+        }
+    }
+
+    @Test
+    void sequentialVersusFanOut() {
+        TransactionTemplate readOnlyTx = new TransactionTemplate(transactionManager);
+        readOnlyTx.setReadOnly(true);
+
+        report("sequential (request thread)", medianMillis(5, 20, () -> readOnlyTx.executeWithoutResult(status -> {
+            memberRepository.findMemberDto();
+            memberRepository.findUsernameList();
+            memberRepository.count();
+        })));
+        report("fan-out (memberQueryExecutor)", medianMillis(5, 20, () -> CompletableFuture.allOf(
+                memberRepository.findMemberDtoAsync(),
+                memberRepository.findUsernameListAsync(),
+                memberRepository.countAsync()).join()));
+    }
+}
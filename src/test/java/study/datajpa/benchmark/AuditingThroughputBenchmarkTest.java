@@ -0,0 +1,88 @@
+package study.datajpa.benchmark;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static study.datajpa.benchmark.BenchmarkSupport.*;
+
+// 32개 스레드가 동시에 member 를 저장할 때 auditing 모드별 insert 처리량 비교
+// standard: 저장마다 UUID.randomUUID()(SecureRandom) + AuditingHandler
+// fast: 트랜잭션당 작성자 1번 + 캐시된 시계 + stamp 메서드 직접 호출
+@PerformanceTest
+class AuditingThroughputBenchmarkTest {
+
+    private static final int WRITERS = 32;
+    private static final int TRANSACTIONS_PER_WRITER = 50;
+    private static final int MEMBERS_PER_TRANSACTION = 100;
+
+    @Nested
+    @TestPropertySource(properties = "app.auditing.mode=standard")
+    class Standard extends InsertThroughput {
+    }
+
+    @Nested
+    @TestPropertySource(properties = "app.auditing.mode=fast")
+    class Fast extends InsertThroughput {
+    }
+
+    // 빈과 모드는 nested 클래스 인스턴스에 주입받아야 그 클래스의 설정으로 뜬 컨텍스트의 것이 됨
+    // (바깥 클래스의 필드는 기본 설정(standard) 컨텍스트에서 주입됨)
+    abstract static class InsertThroughput {
+
+        @Autowired MemberRepository memberRepository;
+        @Autowired TransactionTemplate transactionTemplate;
+        @Value("${app.auditing.mode}") String mode;
+
+        @Test
+        void insertThroughput() throws Exception {
+            // warmup
+            write(4, 10);
+
+            long start = System.nanoTime();
+            int rows = write(WRITERS, TRANSACTIONS_PER_WRITER);
+            double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+            reportRow("auditing " + mode + " " + WRITERS + " writers", "%,10d rows %8.2f s %,12.0f rows/s",
+                    rows, seconds, rows / seconds);
+        }
+
+        private int write(int writers, int transactions) throws Exception {
+            ExecutorService executor = Executors.newFixedThreadPool(writers);
+            try {
+                List<Future<Integer>> futures = new ArrayList<>();
+                for (int w = 0; w < writers; w++) {
+                    int writer = w;
+                    futures.add(executor.submit(() -> {
+                        int saved = 0;
+                        for (int t = 0; t < transactions; t++) {
+                            List<Member> members = new ArrayList<>(MEMBERS_PER_TRANSACTION);
+                            for (int i = 0; i < MEMBERS_PER_TRANSACTION; i++) {
+                                members.add(new Member("audit" + mode + writer + "_" + t + "_" + i, i));
+                            }
+                            saved += transactionTemplate.execute(status -> memberRepository.saveAllBatched(members));
+                        }
+                        return saved;
+                    }));
+                }
+                int total = 0;
+                for (Future<Integer> future : futures) {
+                    total += future.get();
+                }
+                return total;
+            } finally {
+                executor.shutdown();
+            }
+        }
+    }
+}
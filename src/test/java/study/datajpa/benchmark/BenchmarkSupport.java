@@ -0,0 +1,59 @@
+package study.datajpa.benchmark;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+
+public abstract class BenchmarkSupport {
+
+    private BenchmarkSupport() {
+    }
+
+    // JPA 를 거치지 않고 insert ... select 한 방으로 대량의 member 를 넣음
+    // id 는 member_seq 에서 직접 받아오기 때문에 이후 JPA 로 저장하는 id 와 겹치지 않음
+    public static void seedMembers(JdbcTemplate jdbcTemplate, int count) {
+        jdbcTemplate.update("insert into member (member_id, username, age, version, processed) " +
+                "select next value for member_seq, concat('bench', x), mod(x, 100), 0, false " +
+                "from system_range(1, ?)", count);
+    }
+
+    // warmup 후 iterations 번 실행한 시간의 중앙값(ms)
+    public static double medianMillis(int warmup, int iterations, Runnable task) {
+        for (int i = 0; i < warmup; i++) {
+            task.run();
+        }
+        long[] samples = new long[iterations];
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            task.run();
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        return samples[iterations / 2] / 1_000_000.0;
+    }
+
+    // 현재 스레드가 task 한 번에 할당한 평균 바이트 (HotSpot 의 스레드별 할당 카운터 사용)
+    public static long allocatedBytesPerRun(int iterations, Runnable task) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        task.run();
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < iterations; i++) {
+            task.run();
+        }
+        return (threads.getCurrentThreadAllocatedBytes() - before) / iterations;
+    }
+
+    public static void report(String label, double millis) {
+        System.out.printf("%-50s %12.3f ms%n", label, millis);
+    }
+
+    public static void reportBytes(String label, long bytes) {
+        System.out.printf("%-50s %,12d bytes%n", label, bytes);
+    }
+
+    // report 와 같은 label 열 뒤에 측정마다 다른 열(처리량, 배수, 문장 수 등)을 format 으로 덧붙임
+    public static void reportRow(String label, String format, Object... columns) {
+        System.out.printf("%-50s %s%n", label, String.format(format, columns));
+    }
+}
@@ -0,0 +1,96 @@
+package study.datajpa.benchmark;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.test.context.TestPropertySource;
+import study.datajpa.entity.Member;
+import study.datajpa.ingest.BulkIngestor;
+import study.datajpa.ingest.IngestFormat;
+import study.datajpa.ingest.IngestResult;
+import study.datajpa.repository.MemberRepository;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.IntStream;
+
+import static study.datajpa.benchmark.BenchmarkSupport.*;
+
+// member 200k 건 NDJSON 적재 처리량
+// saveAllBatched(영속성 컨텍스트 + 엔티티 리스너, 단일 트랜잭션) 와 BulkIngestor(StatelessSession, writer 스레드 수별) 비교
+@PerformanceTest
+class BulkIngestBenchmarkTest {
+
+    private static final int ROWS = 200_000;
+
+    @Autowired MemberRepository memberRepository;
+
+    @Test
+    void saveAllBatched() {
+        Iterable<Member> members = () -> IntStream.range(0, ROWS)
+                .mapToObj(i -> new Member("saveAll" + i, i % 100))
+                .iterator();
+        long start = System.nanoTime();
+        int saved = memberRepository.saveAllBatched(members);
+        report("saveAllBatched()", saved, System.nanoTime() - start);
+    }
+
+    @Nested
+    @TestPropertySource(properties = "app.ingest.writer-threads=1")
+    class OneWriter extends Ingest {
+        @Test
+        void ingest() {
+            run("stateless1_", false);
+        }
+    }
+
+    @Nested
+    @TestPropertySource(properties = "app.ingest.writer-threads=4")
+    class FourWriters extends Ingest {
+        @Test
+        void ingest() {
+            run("stateless4_", false);
+        }
+
+        @Test
+        void ingestWithAuditStamp() {
+            run("audited4_", true);
+        }
+    }
+
+    // BulkIngestor 와 writer 수는 nested 클래스 인스턴스에 주입받아야 그 클래스의 설정으로 뜬 컨텍스트의 것이 됨
+    // (바깥 클래스의 필드는 기본 설정 컨텍스트에서 주입됨)
+    abstract static class Ingest {
+
+        @Autowired BulkIngestor bulkIngestor;
+        @Value("${app.ingest.writer-threads}") int writerThreads;
+
+        void run(String prefix, boolean auditStamp) {
+            byte[] ndjson = ndjson(prefix);
+            // warmup
+            bulkIngestor.ingestMembers(new ByteArrayInputStream(ndjson(prefix + "warmup_", 20_000)), IngestFormat.NDJSON, auditStamp);
+
+            IngestResult result = bulkIngestor.ingestMembers(new ByteArrayInputStream(ndjson), IngestFormat.NDJSON, auditStamp);
+            report("BulkIngestor " + writerThreads + " writers" + (auditStamp ? " + audit" : ""),
+                    (int) result.rows(), result.elapsedMillis() * 1_000_000);
+        }
+    }
+
+    private static byte[] ndjson(String prefix) {
+        return ndjson(prefix, ROWS);
+    }
+
+    private static byte[] ndjson(String prefix, int rows) {
+        StringBuilder ndjson = new StringBuilder(rows * 40);
+        for (int i = 0; i < rows; i++) {
+            ndjson.append("{\"username\":\"").append(prefix).append(i).append("\",\"age\":").append(i % 100).append("}\n");
+        }
+        return ndjson.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void report(String label, int rows, long elapsedNanos) {
+        double seconds = elapsedNanos / 1_000_000_000.0;
+        reportRow(label, "%,10d rows %8.2f s %,12.0f rows/s", rows, seconds, rows / seconds);
+    }
+}
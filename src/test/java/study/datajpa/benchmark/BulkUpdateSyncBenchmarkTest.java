@@ -0,0 +1,75 @@
+package study.datajpa.benchmark;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.PersistenceContextSync;
+
+import java.util.List;
+
+import static study.datajpa.benchmark.BenchmarkSupport.*;
+
+// 한 트랜잭션에서 member 10,000명을 읽고 -> bulk update -> 다시 10,000명을 읽는 시간 비교
+// clearAutomatically 는 10,000명 전부 다시 읽지만, 대상만 맞추면 바뀐 약 10%(age >= 90)만 다시 읽음
+@PerformanceTest
+class BulkUpdateSyncBenchmarkTest {
+
+    private static final int MEMBERS = 10_000;
+    // seedMembers 의 나이는 0~99 이므로 약 10% 가 대상
+    private static final int AGE_THRESHOLD = 90;
+
+    @Autowired MemberRepository memberRepository;
+    @Autowired JdbcTemplate jdbcTemplate;
+    @Autowired TransactionTemplate transactionTemplate;
+    @PersistenceContext EntityManager em;
+
+    private List<Long> ids;
+
+    @BeforeEach
+    void seed() {
+        if (memberRepository.count() < MEMBERS) {
+            seedMembers(jdbcTemplate, MEMBERS);
+        }
+        ids = jdbcTemplate.queryForList("select member_id from member order by member_id limit ?", Long.class, MEMBERS);
+    }
+
+    @Test
+    void readUpdateRead() {
+        report("clearAutomatically (clear all)", medianMillis(3, 10, () -> transactionTemplate.executeWithoutResult(status -> {
+            readAll();
+            memberRepository.bulkAgePlus(AGE_THRESHOLD);
+            readAll();
+            resetAges();
+        })));
+        report("targeted DETACH", medianMillis(3, 10, () -> transactionTemplate.executeWithoutResult(status -> {
+            readAll();
+            memberRepository.bulkAgePlus(AGE_THRESHOLD, PersistenceContextSync.DETACH);
+            readAll();
+            resetAges();
+        })));
+        report("targeted REFRESH", medianMillis(3, 10, () -> transactionTemplate.executeWithoutResult(status -> {
+            readAll();
+            memberRepository.bulkAgePlus(AGE_THRESHOLD, PersistenceContextSync.REFRESH);
+            readAll();
+            resetAges();
+        })));
+    }
+
+    // 영속성 컨텍스트에 있으면 그대로, 없으면 DB 에서 읽음
+    private void readAll() {
+        for (Long id : ids) {
+            em.find(Member.class, id).getAge();
+        }
+    }
+
+    // 반복 측정마다 같은 행 수가 대상이 되도록 나이를 되돌림
+    private void resetAges() {
+        jdbcTemplate.update("update member set age = age - 1 where age > ?", AGE_THRESHOLD);
+    }
+}
@@ -0,0 +1,57 @@
+package study.datajpa.benchmark;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import study.datajpa.monitoring.QueryCounter;
+import study.datajpa.repository.MemberRepository;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static study.datajpa.benchmark.BenchmarkSupport.*;
+
+// 10 ~ 100,000 개 이름으로 findByNames 를 호출할 때 지연시간과 SQL 재사용률
+// 같은 크기 구간 안에서 리스트 길이를 조금씩 바꿔가며 호출하고, 실행된 SQL 중 서로 다른 문장 수를 셈
+// 재사용률 = 1 - (서로 다른 SQL 수 / 실행한 SQL 수), padding/chunk 가 없으면 길이마다 새 SQL 이 만들어짐
+@PerformanceTest
+class FindByNamesBenchmarkTest {
+
+    private static final int MEMBERS = 200_000;
+    private static final int[] SIZES = {10, 100, 1_000, 10_000, 100_000};
+    private static final int CALLS = 20;
+
+    @Autowired MemberRepository memberRepository;
+    @Autowired JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void seed() {
+        if (memberRepository.count() < MEMBERS) {
+            seedMembers(jdbcTemplate, MEMBERS);
+        }
+    }
+
+    @Test
+    void inListSizes() {
+        for (int size : SIZES) {
+            List<String> statements = new ArrayList<>();
+            double millis = medianMillis(3, CALLS, () -> {
+                // 크기 구간 안에서 길이를 매번 다르게 (size ~ size * 1.5)
+                int length = size + ThreadLocalRandom.current().nextInt(size / 2 + 1);
+                List<String> names = new ArrayList<>(length);
+                for (int i = 0; i < length; i++) {
+                    names.add("bench" + ThreadLocalRandom.current().nextInt(1, MEMBERS));
+                }
+                statements.addAll(QueryCounter.capture(() -> memberRepository.findByNames(names)));
+            });
+            Set<String> distinct = new HashSet<>(statements);
+            reportRow("findByNames " + size + " names", "%12.3f ms %,5d statements %,4d distinct reuse %5.1f%%",
+                    millis, statements.size(), distinct.size(),
+                    100.0 * (1 - (double) distinct.size() / statements.size()));
+        }
+    }
+}
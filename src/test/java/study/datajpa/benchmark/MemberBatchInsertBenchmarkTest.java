@@ -0,0 +1,42 @@
+package study.datajpa.benchmark;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import java.util.stream.IntStream;
+
+import static study.datajpa.benchmark.BenchmarkSupport.*;
+
+// 한 건씩 save 하는 방식과 saveAllBatched(JDBC 배치 + pooled 시퀀스)의 insert 처리량 비교
+@PerformanceTest
+class MemberBatchInsertBenchmarkTest {
+
+    private static final int ROW_BY_ROW_COUNT = 10_000;
+    private static final int BATCHED_COUNT = 1_000_000;
+
+    @Autowired MemberRepository memberRepository;
+
+    @Test
+    void insertThroughput() {
+        long start = System.nanoTime();
+        for (int i = 0; i < ROW_BY_ROW_COUNT; i++) {
+            memberRepository.save(new Member("single" + i, i % 100));
+        }
+        report("save() row by row", ROW_BY_ROW_COUNT, System.nanoTime() - start);
+
+        // 100만 건을 리스트로 들고 있지 않도록 Iterable 로 하나씩 생성해서 넘김
+        Iterable<Member> members = () -> IntStream.range(0, BATCHED_COUNT)
+                .mapToObj(i -> new Member("batched" + i, i % 100))
+                .iterator();
+        start = System.nanoTime();
+        int saved = memberRepository.saveAllBatched(members);
+        report("saveAllBatched()", saved, System.nanoTime() - start);
+    }
+
+    private static void report(String label, int rows, long elapsedNanos) {
+        double seconds = elapsedNanos / 1_000_000_000.0;
+        reportRow(label, "%,10d rows %8.2f s %,12.0f rows/s", rows, seconds, rows / seconds);
+    }
+}
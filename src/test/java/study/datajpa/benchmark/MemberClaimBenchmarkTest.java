@@ -0,0 +1,98 @@
+package study.datajpa.benchmark;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.*;
+import static study.datajpa.benchmark.BenchmarkSupport.*;
+
+// claimUnprocessed(SKIP LOCKED) 로 backlog 400 건을 워커 1개 / 4개가 비우는 시간
+// claimUnprocessed 는 미처리 member 를 전부 가져가므로 다른 측정이 넣은 대량의 member 가 있는 mem:benchmark 대신
+// 이 측정만의 in-memory DB 를 사용 (그래서 @PerformanceTest 대신 태그와 설정을 직접 붙임)
+@Tag("benchmark")
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:claimBenchmark;DB_CLOSE_DELAY=-1",
+        "logging.level.org.hibernate.SQL=info"
+})
+class MemberClaimBenchmarkTest {
+
+    private static final int BACKLOG = 400;
+    private static final int CLAIM_SIZE = 10;
+    // 한 건 처리에 드는 시간(외부 호출 등) 흉내
+    private static final long WORK_MILLIS = 2;
+
+    @Autowired MemberRepository memberRepository;
+    @Autowired TransactionTemplate transactionTemplate;
+
+    @Test
+    void scalesWithWorkers() throws Exception {
+        seed("claimA");
+        long single = drain(1);
+        seed("claimB");
+        long parallel = drain(4);
+
+        report("claimUnprocessed 1 worker", single);
+        report("claimUnprocessed 4 workers", parallel);
+        // 워커끼리 락을 기다리지 않으므로 처리 시간이 워커 수에 거의 반비례
+        assertThat(parallel).isLessThan(single / 2);
+    }
+
+    private void seed(String prefix) {
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < BACKLOG; i++) {
+            members.add(new Member(prefix + i, i % 100));
+        }
+        memberRepository.saveAllBatched(members);
+    }
+
+    // 모든 워커가 더 가져갈 행이 없을 때까지 돌고 걸린 시간(ms)을 반환
+    private long drain(int workers) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(workers);
+        try {
+            long start = System.nanoTime();
+            List<Future<?>> futures = new ArrayList<>();
+            for (int w = 0; w < workers; w++) {
+                futures.add(executor.submit(() -> {
+                    int claimed;
+                    do {
+                        claimed = transactionTemplate.execute(status -> {
+                            List<Member> batch = memberRepository.claimUnprocessed(CLAIM_SIZE);
+                            for (Member member : batch) {
+                                sleep(WORK_MILLIS);
+                                member.markProcessed();
+                            }
+                            return batch.size();
+                        });
+                    } while (claimed > 0);
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            return (System.nanoTime() - start) / 1_000_000;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package study.datajpa.benchmark;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.locking.OptimisticRetryExecutor;
+import study.datajpa.repository.MemberRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static study.datajpa.benchmark.BenchmarkSupport.*;
+
+// 동시에 같은 member 들의 나이를 올릴 때 PESSIMISTIC_WRITE 와 @Version + 재시도의 처리량 비교
+// hot row 수가 적을수록 경합이 심함 (1 = 모든 스레드가 같은 행을 수정)
+@PerformanceTest
+@TestPropertySource(properties = "app.optimistic-retry.max-attempts=1000")
+class MemberContentionBenchmarkTest {
+
+    private static final int THREADS = 16;
+    private static final int UPDATES_PER_THREAD = 200;
+    private static final int[] HOT_ROWS = {1, 4, 16, 256};
+
+    @Autowired MemberRepository memberRepository;
+    @Autowired TransactionTemplate transactionTemplate;
+    @Autowired OptimisticRetryExecutor retryExecutor;
+
+    @Test
+    void pessimisticVersusOptimistic() throws Exception {
+        for (int hotRows : HOT_ROWS) {
+            List<Member> members = new ArrayList<>();
+            for (int i = 0; i < hotRows; i++) {
+                // 비관적 락은 username 으로 조회하므로 이름을 겹치지 않게 만듦
+                members.add(memberRepository.save(new Member("hot" + hotRows + "_" + i + "_" + System.nanoTime(), 0)));
+            }
+
+            double pessimistic = throughput(() -> {
+                Member target = members.get(ThreadLocalRandom.current().nextInt(hotRows));
+                transactionTemplate.executeWithoutResult(status -> {
+                    Member member = memberRepository.findLockByUsername(target.getUsername()).get(0);
+                    member.setAge(member.getAge() + 1);
+                });
+            });
+
+            long retriesBefore = retryExecutor.getRetryCount();
+            double optimistic = throughput(() -> {
+                Long id = members.get(ThreadLocalRandom.current().nextInt(hotRows)).getId();
+                retryExecutor.executeWithoutResult(() -> {
+                    Member member = memberRepository.findById(id).get();
+                    member.setAge(member.getAge() + 1);
+                });
+            });
+            long retries = retryExecutor.getRetryCount() - retriesBefore;
+
+            reportRow("hot rows " + hotRows, "pessimistic %,10.0f ops/s optimistic %,10.0f ops/s (%,d retries)",
+                    pessimistic, optimistic, retries);
+        }
+    }
+
+    private double throughput(Runnable update) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            long start = System.nanoTime();
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < UPDATES_PER_THREAD; i++) {
+                        update.run();
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+            return THREADS * UPDATES_PER_THREAD / seconds;
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
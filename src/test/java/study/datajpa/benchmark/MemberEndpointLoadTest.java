@@ -0,0 +1,160 @@
+package study.datajpa.benchmark;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static study.datajpa.benchmark.BenchmarkSupport.*;
+
+// /members, /members/{id} 에 동시 요청을 걸어 처리량과 p99 지연시간 측정
+// 플랫폼 스레드와 가상 스레드 + bulkhead 를 각각의 컨텍스트로 띄워 한번에 두 줄을 출력
+// 가상 스레드는 Java 21 이 필요하므로 ./gradlew benchmark --tests '*MemberEndpointLoadTest' -PvirtualThreads 로 실행해야 두 줄 모두 나옴
+// (Java 17 로 실행하면 Virtual 은 건너뜀)
+// 톰캣 기본 스레드 수(200)보다 많은 동시 요청을 걸어야 차이가 드러남
+@PerformanceTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class MemberEndpointLoadTest {
+
+    private static final int MEMBERS = 10_000;
+    private static final int CONCURRENCY = 400;
+    private static final Duration WARMUP = Duration.ofSeconds(5);
+    private static final Duration MEASURE = Duration.ofSeconds(20);
+
+    @Nested
+    @TestPropertySource(properties = {"spring.threads.virtual.enabled=false", "app.datasource.bulkhead.enabled=false"})
+    class Platform extends EndpointLoad {
+    }
+
+    @Nested
+    @TestPropertySource(properties = {"spring.threads.virtual.enabled=true", "app.datasource.bulkhead.enabled=true"})
+    class Virtual extends EndpointLoad {
+
+        @BeforeEach
+        void requireVirtualThreads() {
+            // Java 17 에서는 spring.threads.virtual.enabled 가 무시되어 플랫폼 스레드로 측정하게 됨
+            assumeTrue(Runtime.version().feature() >= 21, "virtual threads need Java 21 (-PvirtualThreads)");
+        }
+    }
+
+    // 포트와 설정 값은 nested 클래스 인스턴스에 주입받아야 그 클래스의 설정으로 뜬 서버의 것이 됨
+    abstract static class EndpointLoad {
+
+        @LocalServerPort int port;
+        @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads;
+        @Value("${app.datasource.bulkhead.enabled:false}") boolean bulkhead;
+        @Autowired JdbcTemplate jdbcTemplate;
+
+        // member_seq 는 100 씩 증가하므로 min ~ max 사이의 값을 고르면 대부분 없는 id, 실제 id 에서 고름
+        private long[] ids;
+
+        @BeforeEach
+        void seed() {
+            Long count = jdbcTemplate.queryForObject("select count(*) from member", Long.class);
+            if (count < MEMBERS) {
+                seedMembers(jdbcTemplate, MEMBERS);
+            }
+            ids = jdbcTemplate.queryForList("select member_id from member order by member_id limit ?", Long.class, MEMBERS)
+                    .stream().mapToLong(Long::longValue).toArray();
+        }
+
+        @Test
+        void memberPage() throws Exception {
+            run("GET /members", () -> "/members?page=" + ThreadLocalRandom.current().nextInt(100) + "&size=20");
+        }
+
+        @Test
+        void memberById() throws Exception {
+            run("GET /members/{id}", () -> "/members/" + ids[ThreadLocalRandom.current().nextInt(ids.length)]);
+        }
+
+        private void run(String label, PathSupplier path) throws Exception {
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(5))
+                    .build();
+
+            load(client, path, WARMUP, new AtomicLong());
+            AtomicLong failures = new AtomicLong();
+            List<long[]> perWorker = load(client, path, MEASURE, failures);
+
+            long[] latencies = perWorker.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+            // 실패한 응답은 빨리 끝나서 처리량과 지연시간을 좋아 보이게 만들므로 하나라도 있으면 측정 실패
+            assertThat(failures.get()).as("non-200 responses").isZero();
+            assertThat(latencies).isNotEmpty();
+            double throughput = latencies.length / (double) MEASURE.toSeconds();
+            String mode = (virtualThreads ? "virtual" : "platform") + (bulkhead ? "+bulkhead" : "");
+            reportRow(label + " " + mode, "%10.1f req/s p50 %8.3f ms p99 %8.3f ms (%d requests, %d concurrent)",
+                    throughput, percentile(latencies, 0.50), percentile(latencies, 0.99), latencies.length, CONCURRENCY);
+        }
+
+        // CONCURRENCY 개의 클라이언트가 duration 동안 쉬지 않고 요청, 각자 성공한 요청의 지연시간(ns)을 모으고 실패는 failures 에 셈
+        private List<long[]> load(HttpClient client, PathSupplier path, Duration duration, AtomicLong failures) throws Exception {
+            long deadline = System.nanoTime() + duration.toNanos();
+            ExecutorService workers = Executors.newFixedThreadPool(CONCURRENCY);
+            try {
+                List<Future<long[]>> futures = new ArrayList<>();
+                for (int i = 0; i < CONCURRENCY; i++) {
+                    futures.add(workers.submit(() -> {
+                        long[] samples = new long[1024];
+                        int n = 0;
+                        while (System.nanoTime() < deadline) {
+                            HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path.get()))
+                                    .timeout(Duration.ofSeconds(60))
+                                    .GET().build();
+                            long start = System.nanoTime();
+                            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            long elapsed = System.nanoTime() - start;
+                            if (response.statusCode() != 200) {
+                                failures.incrementAndGet();
+                                continue;
+                            }
+                            if (n == samples.length) {
+                                samples = Arrays.copyOf(samples, n * 2);
+                            }
+                            samples[n++] = elapsed;
+                        }
+                        return Arrays.copyOf(samples, n);
+                    }));
+                }
+                List<long[]> result = new ArrayList<>();
+                for (Future<long[]> future : futures) {
+                    result.add(future.get());
+                }
+                return result;
+            } finally {
+                workers.shutdownNow();
+            }
+        }
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(index, 0)] / 1_000_000.0;
+    }
+
+    @FunctionalInterface
+    private interface PathSupplier {
+        String get();
+    }
+}
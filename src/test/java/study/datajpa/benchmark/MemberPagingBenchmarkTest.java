@@ -0,0 +1,51 @@
+package study.datajpa.benchmark;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import study.datajpa.repository.MemberCursor;
+import study.datajpa.repository.MemberRepository;
+
+import static study.datajpa.benchmark.BenchmarkSupport.*;
+
+// offset 페이징과 keyset 페이징의 1 페이지 / 10,000 페이지 지연시간 비교
+@PerformanceTest
+class MemberPagingBenchmarkTest {
+
+    private static final int PAGE_SIZE = 20;
+    private static final int DEEP_PAGE = 10_000;
+
+    @Autowired MemberRepository memberRepository;
+    @Autowired JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void seed() {
+        if (memberRepository.count() < (long) PAGE_SIZE * (DEEP_PAGE + 1)) {
+            seedMembers(jdbcTemplate, PAGE_SIZE * (DEEP_PAGE + 1));
+        }
+    }
+
+    @Test
+    void offsetVersusKeyset() {
+        Sort byId = Sort.by(Sort.Direction.ASC, "id");
+
+        // keyset 은 직전 페이지의 마지막 id 만 알면 되므로 10,000 페이지 직전 행의 id 를 미리 구해둠
+        Long lastIdBeforeDeepPage = jdbcTemplate.queryForObject(
+                "select member_id from member order by member_id limit 1 offset ?",
+                Long.class, (long) PAGE_SIZE * DEEP_PAGE - 1);
+        MemberCursor firstPage = MemberCursor.first(MemberCursor.SortKey.ID, Sort.Direction.ASC);
+        MemberCursor deepPage = MemberCursor.of(MemberCursor.SortKey.ID, Sort.Direction.ASC, null, lastIdBeforeDeepPage);
+
+        report("offset  page 1",
+                medianMillis(20, 50, () -> memberRepository.findAll(PageRequest.of(0, PAGE_SIZE, byId))));
+        report("offset  page " + DEEP_PAGE,
+                medianMillis(20, 50, () -> memberRepository.findAll(PageRequest.of(DEEP_PAGE, PAGE_SIZE, byId))));
+        report("keyset  page 1",
+                medianMillis(20, 50, () -> memberRepository.findMemberKeyset(firstPage, PAGE_SIZE)));
+        report("keyset  page " + DEEP_PAGE,
+                medianMillis(20, 50, () -> memberRepository.findMemberKeyset(deepPage, PAGE_SIZE)));
+    }
+}
@@ -0,0 +1,59 @@
+package study.datajpa.benchmark;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.repository.CountMode;
+import study.datajpa.repository.MemberRepository;
+
+import static study.datajpa.benchmark.BenchmarkSupport.*;
+
+// /members 한 페이지를 엔티티로 읽어 DTO 로 바꾸는 경우와 DTO/인터페이스 projection 으로 바로 읽는 경우의
+// 페이지당 지연시간과 할당 바이트 비교
+@PerformanceTest
+class MemberProjectionBenchmarkTest {
+
+    private static final int MEMBERS = 50_000;
+    private static final PageRequest PAGE = PageRequest.of(100, 100, Sort.by(Sort.Direction.ASC, "id"));
+
+    @Autowired MemberRepository memberRepository;
+    @Autowired JdbcTemplate jdbcTemplate;
+    @Autowired PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void seed() {
+        if (memberRepository.count() < MEMBERS) {
+            seedMembers(jdbcTemplate, MEMBERS);
+            jdbcTemplate.update("insert into team (team_id, name, version) values (next value for team_seq, 'benchTeam', 0)");
+            jdbcTemplate.update("update member set team_id = (select max(team_id) from team) where team_id is null");
+        }
+    }
+
+    @Test
+    void entityVersusProjection() {
+        TransactionTemplate readOnlyTx = new TransactionTemplate(transactionManager);
+        readOnlyTx.setReadOnly(true);
+
+        // 이전 /members 구현 - 엔티티 페이지를 읽고 MemberDto(Member) 로 변환
+        Runnable entity = () -> readOnlyTx.executeWithoutResult(status ->
+                memberRepository.findAllCountCached(PAGE, CountMode.CACHED).map(MemberDto::new).getContent());
+        Runnable dto = () -> readOnlyTx.executeWithoutResult(status ->
+                memberRepository.findMemberDtoPage(PAGE, CountMode.CACHED).getContent());
+        Runnable view = () -> readOnlyTx.executeWithoutResult(status ->
+                memberRepository.findMemberViews(PAGE).getContent().forEach(v -> v.getTeamName()));
+
+        report("entity page -> MemberDto", medianMillis(50, 200, entity));
+        report("constructor DTO projection", medianMillis(50, 200, dto));
+        report("interface projection", medianMillis(50, 200, view));
+
+        reportBytes("entity page -> MemberDto", allocatedBytesPerRun(200, entity));
+        reportBytes("constructor DTO projection", allocatedBytesPerRun(200, dto));
+        reportBytes("interface projection", allocatedBytesPerRun(200, view));
+    }
+}
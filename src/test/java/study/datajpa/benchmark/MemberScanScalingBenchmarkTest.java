@@ -0,0 +1,65 @@
+package study.datajpa.benchmark;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import study.datajpa.scan.MemberScanner;
+import study.datajpa.scan.ScanResult;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static study.datajpa.benchmark.BenchmarkSupport.*;
+
+// member 5M 건 전체를 읽고 age 를 바꾸는 배치 작업을 MemberScanner 워커 수 1, 2, 4 ... CPU 코어 수로 실행한 처리량
+// 워커마다 커넥션을 하나씩 잡으므로 커넥션 풀을 코어 수보다 크게 잡음
+// seedMembers 의 id 는 member_seq(allocationSize 100) 라서 100 간격, chunk-size 는 id 폭이므로
+// 5,000,000 이면 구간당 약 50,000 행 (구간 100개) - 트랜잭션/체크포인트 비용보다 행 처리 비용이 측정됨
+@PerformanceTest
+@TestPropertySource(properties = {
+        "spring.datasource.hikari.maximum-pool-size=64",
+        "app.member-scan.chunk-size=5000000",
+        "app.member-scan.clear-interval=2000"
+})
+class MemberScanScalingBenchmarkTest {
+
+    private static final int ROWS = 5_000_000;
+
+    @Autowired MemberScanner memberScanner;
+    @Autowired JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void seed() {
+        Long count = jdbcTemplate.queryForObject("select count(*) from member", Long.class);
+        if (count < ROWS) {
+            seedMembers(jdbcTemplate, (int) (ROWS - count));
+        }
+    }
+
+    @Test
+    void scaling() {
+        int cores = Runtime.getRuntime().availableProcessors();
+        List<Integer> levels = new ArrayList<>();
+        for (int workers = 1; workers < cores; workers *= 2) {
+            levels.add(workers);
+        }
+        levels.add(cores);
+
+        // warmup
+        memberScanner.scan("scanWarmup", cores, member -> member.setAge((member.getAge() + 1) % 100));
+
+        double baseline = 0;
+        for (int workers : levels) {
+            ScanResult result = memberScanner.scan("scan" + workers, workers,
+                    member -> member.setAge((member.getAge() + 1) % 100));
+            if (baseline == 0) {
+                baseline = result.rowsPerSecond();
+            }
+            reportRow("MemberScanner " + workers + " workers", "%,10d rows %8.2f s %,12.0f rows/s %6.2fx",
+                    result.rows(), result.elapsedMillis() / 1000.0, result.rowsPerSecond(),
+                    result.rowsPerSecond() / baseline);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package study.datajpa.benchmark;
+
+import org.junit.jupiter.api.Tag;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.annotation.AliasFor;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// 성능 측정용 테스트 - 기본 test 태스크에서는 제외되고 ./gradlew benchmark 로만 실행됨
+// 대량 데이터를 넣기 때문에 tcp 서버가 아닌 별도의 in-memory H2 를 사용하고 SQL 로그는 끔
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Tag("benchmark")
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+        "logging.level.org.hibernate.SQL=info"
+})
+public @interface PerformanceTest {
+
+    // 실제 HTTP 부하를 주는 측정은 RANDOM_PORT 로 띄움
+    @AliasFor(annotation = SpringBootTest.class)
+    SpringBootTest.WebEnvironment webEnvironment() default SpringBootTest.WebEnvironment.MOCK;
+}
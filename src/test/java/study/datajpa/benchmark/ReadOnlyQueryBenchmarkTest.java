@@ -0,0 +1,113 @@
+package study.datajpa.benchmark;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.readonly.ReadOnlyQueries;
+import study.datajpa.repository.MemberRepository;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static study.datajpa.benchmark.BenchmarkSupport.*;
+
+// member 100k 를 엔티티로 읽었을 때
+// 쓰기 트랜잭션의 일반 로딩(스냅샷 보관 + 커밋 시 dirty checking)과 ReadOnlyQueries(readOnly 트랜잭션, 읽기 전용 엔티티 + MANUAL flush)의
+// 로딩 시간, 영속성 컨텍스트가 붙잡고 있는 힙, flush 시간 비교
+@PerformanceTest
+class ReadOnlyQueryBenchmarkTest {
+
+    private static final int MEMBERS = 100_000;
+    private static final int ITERATIONS = 5;
+
+    @Autowired MemberRepository memberRepository;
+    @Autowired ReadOnlyQueries readOnlyQueries;
+    @Autowired EntityManager em;
+    @Autowired JdbcTemplate jdbcTemplate;
+    @Autowired PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void seed() {
+        if (memberRepository.count() < MEMBERS) {
+            seedMembers(jdbcTemplate, MEMBERS);
+        }
+    }
+
+    @Test
+    void readOnlyVersusManaged() {
+        Result managed = measure(false);
+        Result readOnly = measure(true);
+
+        report("load 100k members (managed)", managed.loadMillis);
+        report("load 100k members (read-only)", readOnly.loadMillis);
+        reportBytes("retained heap (managed)", managed.retainedBytes);
+        reportBytes("retained heap (read-only)", readOnly.retainedBytes);
+        report("flush (managed)", managed.flushMillis);
+        report("flush (read-only)", readOnly.flushMillis);
+
+        assertThat(readOnly.retainedBytes).isLessThan(managed.retainedBytes);
+        assertThat(readOnly.flushMillis).isLessThan(managed.flushMillis);
+    }
+
+    // managed: 쓰기 트랜잭션에서 로딩, read-only: 트랜잭션 밖에서 ReadOnlyQueries 가 readOnly 트랜잭션을 열고 로딩
+    private Result measure(boolean readOnly) {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        double[] load = new double[ITERATIONS];
+        long[] retained = new long[ITERATIONS];
+        double[] flush = new double[ITERATIONS];
+        for (int i = 0; i < ITERATIONS; i++) {
+            int run = i;
+            Runnable block = () -> {
+                long heapBefore = usedHeapAfterGc();
+                long start = System.nanoTime();
+                List<Member> members = loadAll();
+                load[run] = (System.nanoTime() - start) / 1_000_000.0;
+                assertThat(members).hasSizeGreaterThanOrEqualTo(MEMBERS);
+                // 결과 리스트는 버리고 영속성 컨텍스트(엔티티 + 스냅샷)가 붙잡고 있는 양만 측정
+                members = null;
+                retained[run] = usedHeapAfterGc() - heapBefore;
+
+                // 커밋 시점의 flush 와 같은 작업 - 변경이 없어도 관리 중인 엔티티를 모두 스냅샷과 비교
+                start = System.nanoTime();
+                em.flush();
+                flush[run] = (System.nanoTime() - start) / 1_000_000.0;
+            };
+            if (readOnly) {
+                readOnlyQueries.run(block);
+            } else {
+                tx.executeWithoutResult(status -> {
+                    block.run();
+                    status.setRollbackOnly();
+                });
+            }
+        }
+        return new Result(median(load), (long) median(Arrays.stream(retained).asDoubleStream().toArray()), median(flush));
+    }
+
+    private List<Member> loadAll() {
+        return em.createQuery("select m from Member m", Member.class).getResultList();
+    }
+
+    private static long usedHeapAfterGc() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static double median(double[] samples) {
+        double[] sorted = samples.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+
+    private record Result(double loadMillis, long retainedBytes, double flushMillis) {
+    }
+}
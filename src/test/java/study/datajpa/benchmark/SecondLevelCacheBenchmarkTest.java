@@ -0,0 +1,66 @@
+package study.datajpa.benchmark;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.TeamRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static study.datajpa.benchmark.BenchmarkSupport.*;
+
+// 2차 캐시를 매번 비운 경우(캐시 없음과 동일)와 캐시가 채워진 경우의 조회 지연시간 비교
+@PerformanceTest
+class SecondLevelCacheBenchmarkTest {
+
+    private static final int TEAM_COUNT = 100;
+    private static final int MEMBERS_PER_TEAM = 10;
+
+    @Autowired TeamRepository teamRepository;
+    @Autowired MemberRepository memberRepository;
+    @Autowired TransactionTemplate transactionTemplate;
+    @Autowired EntityManagerFactory emf;
+
+    private final List<Long> teamIds = new ArrayList<>();
+    private final List<Long> memberIds = new ArrayList<>();
+
+    @BeforeEach
+    void seed() {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 0; i < TEAM_COUNT; i++) {
+                Team team = teamRepository.save(new Team("team" + i));
+                teamIds.add(team.getId());
+                for (int j = 0; j < MEMBERS_PER_TEAM; j++) {
+                    memberIds.add(memberRepository.save(new Member("member" + i + "_" + j, j, team)).getId());
+                }
+            }
+        });
+    }
+
+    @Test
+    void readLatency() {
+        Runnable findTeams = () -> transactionTemplate.executeWithoutResult(
+                status -> teamIds.forEach(id -> teamRepository.findById(id).get().getName()));
+        // member 조회 후 지연 로딩으로 team 이름까지 접근
+        Runnable findMembersWithTeam = () -> transactionTemplate.executeWithoutResult(
+                status -> memberIds.forEach(id -> memberRepository.findById(id).get().getTeam().getName()));
+
+        report("team findById, cache evicted", medianMillis(5, 20, () -> {
+            emf.getCache().evictAll();
+            findTeams.run();
+        }));
+        report("team findById, cache warm", medianMillis(5, 20, findTeams));
+
+        report("member -> team lazy, cache evicted", medianMillis(5, 20, () -> {
+            emf.getCache().evictAll();
+            findMembersWithTeam.run();
+        }));
+        report("member -> team lazy, cache warm", medianMillis(5, 20, findMembersWithTeam));
+    }
+}
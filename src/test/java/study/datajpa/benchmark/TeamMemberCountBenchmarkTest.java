@@ -0,0 +1,66 @@
+package study.datajpa.benchmark;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.repository.TeamRepository;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static study.datajpa.benchmark.BenchmarkSupport.*;
+
+// 팀 5개(팀당 12k member)의 인원을 구할 때
+// team.getMembers().size() (SUBSELECT 로 모든 팀의 member 를 엔티티로 로딩) 와 findMemberCounts(비정규화 컬럼 조회 1번) 비교
+@PerformanceTest
+class TeamMemberCountBenchmarkTest {
+
+    private static final int TEAMS = 5;
+    private static final int MEMBERS_PER_TEAM = 12_000;
+
+    @Autowired TeamRepository teamRepository;
+    @Autowired JdbcTemplate jdbcTemplate;
+    @Autowired PlatformTransactionManager transactionManager;
+
+    private List<Long> teamIds;
+
+    @BeforeEach
+    void seed() {
+        teamIds = jdbcTemplate.queryForList("select team_id from team where name like 'countBench%' order by team_id", Long.class);
+        if (teamIds.size() < TEAMS) {
+            for (int t = 0; t < TEAMS; t++) {
+                jdbcTemplate.update("insert into team (team_id, name, version) values (next value for team_seq, ?, 0)",
+                        "countBench" + t);
+                jdbcTemplate.update("insert into member (member_id, username, age, version, processed, team_id) " +
+                        "select next value for member_seq, concat('countBench', x), mod(x, 100), 0, false, " +
+                        "(select max(team_id) from team) from system_range(1, ?)", MEMBERS_PER_TEAM);
+            }
+            // 직접 SQL 로 넣었으므로 이벤트로 유지되지 않은 인원을 다시 계산
+            teamRepository.recountMembers();
+            teamIds = jdbcTemplate.queryForList("select team_id from team where name like 'countBench%' order by team_id", Long.class);
+        }
+    }
+
+    @Test
+    void collectionVersusCounter() {
+        TransactionTemplate readOnlyTx = new TransactionTemplate(transactionManager);
+        readOnlyTx.setReadOnly(true);
+
+        Runnable collection = () -> readOnlyTx.executeWithoutResult(status ->
+                teamRepository.findAllById(teamIds).forEach(team -> team.getMembers().size()));
+        Runnable counter = () -> readOnlyTx.executeWithoutResult(status ->
+                teamRepository.findMemberCounts(teamIds));
+
+        assertThat(readOnlyTx.execute(status -> teamRepository.findMemberCounts(teamIds)).values())
+                .containsOnly(MEMBERS_PER_TEAM);
+
+        report("team.getMembers().size()", medianMillis(3, 10, collection));
+        report("findMemberCounts()", medianMillis(50, 200, counter));
+
+        reportBytes("team.getMembers().size()", allocatedBytesPerRun(10, collection));
+        reportBytes("findMemberCounts()", allocatedBytesPerRun(200, counter));
+    }
+}
@@ -0,0 +1,52 @@
+package study.datajpa.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.*;
+
+class BloomFilterTest {
+
+    @Test
+    public void noFalseNegatives(){
+        BloomFilter filter = BloomFilter.create(10_000, 0.01, 1024 * 1024);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("user" + i);
+        }
+
+        for (int i = 0; i < 10_000; i++) {
+            assertThat(filter.mightContain("user" + i)).isTrue();
+        }
+    }
+
+    @Test
+    public void falsePositiveRateNearTarget(){
+        BloomFilter filter = BloomFilter.create(10_000, 0.01, 1024 * 1024);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("user" + i);
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain("missing" + i)) {
+                falsePositives++;
+            }
+        }
+
+        // 목표 1% 에 여유를 둠
+        assertThat(falsePositives / 100_000.0).isLessThan(0.02);
+        assertThat(filter.expectedFalsePositiveRate()).isLessThan(0.02);
+        assertThat(filter.isSaturated()).isFalse();
+    }
+
+    @Test
+    public void memoryBudgetCapsSize(){
+        BloomFilter filter = BloomFilter.create(1_000_000, 0.001, 1024);
+
+        // 1KB 에 100만 개를 담을 수 없으므로 크기는 예산에 맞춰지고 오탐률은 목표보다 높아짐
+        assertThat(filter.getBitCount()).isEqualTo(1024 * 8);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("user" + i);
+        }
+        assertThat(filter.expectedFalsePositiveRate()).isGreaterThan(0.001);
+    }
+}
@@ -0,0 +1,103 @@
+package study.datajpa.cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+class MemberCountCacheTest {
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    public void cachedUntilInvalidated(){
+        MemberCountCache cache = new MemberCountCache(Duration.ofMinutes(1));
+        AtomicInteger calls = new AtomicInteger();
+
+        long first = cache.get("all", () -> { calls.incrementAndGet(); return 10L; });
+        long second = cache.get("all", () -> { calls.incrementAndGet(); return 20L; });
+
+        // ttl 안에서는 count 를 다시 계산하지 않음
+        assertThat(first).isEqualTo(10);
+        assertThat(second).isEqualTo(10);
+        assertThat(calls.get()).isEqualTo(1);
+
+        cache.invalidateAll();
+        long third = cache.get("all", () -> { calls.incrementAndGet(); return 30L; });
+
+        assertThat(third).isEqualTo(30);
+        assertThat(calls.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void expiresAfterTtl(){
+        MemberCountCache cache = new MemberCountCache(Duration.ZERO);
+
+        cache.get("all", () -> 10L);
+        long count = cache.get("all", () -> 20L);
+
+        assertThat(count).isEqualTo(20);
+    }
+
+    @Test
+    public void invalidationDuringCountIsNotCached(){
+        MemberCountCache cache = new MemberCountCache(Duration.ofMinutes(1));
+
+        // count 를 계산하는 도중 insert 가 일어나 무효화된 경우
+        long stale = cache.get("all", () -> { cache.invalidateAll(); return 10L; });
+        long fresh = cache.get("all", () -> 11L);
+
+        assertThat(stale).isEqualTo(10);
+        assertThat(fresh).isEqualTo(11);
+    }
+
+    @Test
+    public void invalidatedOnlyAfterCommit(){
+        MemberCountCache cache = new MemberCountCache(Duration.ofMinutes(1));
+        cache.get("all", () -> 10L);
+
+        // member insert 가 flush 된 트랜잭션
+        TransactionSynchronizationManager.initSynchronization();
+        cache.invalidateOnCommit();
+
+        // 그 트랜잭션 안에서는 캐시를 거치지 않고 자기 변경이 반영된 count 를 보고, 그 값은 저장하지 않음
+        assertThat(cache.get("all", () -> 11L)).isEqualTo(11);
+        assertThat(cache.get("age:1", () -> 11L)).isEqualTo(11);
+
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        // 커밋 전까지 다른 요청은 커밋된 count 를 봄
+        assertThat(cache.get("all", () -> 11L)).isEqualTo(10);
+        assertThat(cache.get("age:1", () -> 5L)).isEqualTo(5);
+
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+
+        assertThat(cache.get("all", () -> 11L)).isEqualTo(11);
+        assertThat(cache.get("age:1", () -> 6L)).isEqualTo(6);
+    }
+
+    @Test
+    public void countFlushedInsideTransactionIsNotCached(){
+        MemberCountCache cache = new MemberCountCache(Duration.ofMinutes(1));
+        TransactionSynchronizationManager.initSynchronization();
+
+        // count 쿼리 직전 자동 flush 에서 insert 가 나간 경우
+        long uncommitted = cache.get("all", () -> { cache.invalidateOnCommit(); return 11L; });
+        TransactionSynchronizationManager.clearSynchronization();
+
+        // 롤백되어 afterCommit 이 호출되지 않아도 커밋 안 된 값이 남지 않음
+        assertThat(uncommitted).isEqualTo(11);
+        assertThat(cache.get("all", () -> 10L)).isEqualTo(10);
+    }
+}
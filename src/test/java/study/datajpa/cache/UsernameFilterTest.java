@@ -0,0 +1,62 @@
+package study.datajpa.cache;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.monitoring.QueryCounter;
+import study.datajpa.repository.MemberRepository;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.*;
+
+// 영속성 컨텍스트가 비어있어야 필터가 판단하므로 트랜잭션 없이 실행
+@SpringBootTest
+class UsernameFilterTest {
+
+    @Autowired MemberRepository memberRepository;
+    @Autowired UsernameFilter usernameFilter;
+    @Autowired TransactionTemplate transactionTemplate;
+
+    @Test
+    public void missingUsernameSkipsQuery(){
+        AtomicReference<Object> result = new AtomicReference<>();
+        long shortCircuitedBefore = usernameFilter.statistics().shortCircuited();
+
+        long queries = QueryCounter.count(() -> result.set(memberRepository.findOptionalByUsername("no-such-user")));
+
+        assertThat(queries).isZero();
+        assertThat(result.get()).isEqualTo(Optional.empty());
+        assertThat(memberRepository.existsByUsername("no-such-user")).isFalse();
+        assertThat(memberRepository.findMemberByUsername("no-such-user")).isNull();
+        assertThat(usernameFilter.statistics().shortCircuited()).isGreaterThan(shortCircuitedBefore);
+    }
+
+    @Test
+    public void savedUsernameIsFoundWithoutRebuild(){
+        String username = "filter-" + System.nanoTime();
+        memberRepository.save(new Member(username, 20));
+
+        assertThat(memberRepository.findOptionalByUsername(username)).isPresent();
+        assertThat(memberRepository.existsByUsername(username)).isTrue();
+    }
+
+    @Test
+    public void usernameCommittedDuringRebuildIsKept(){
+        String username = "filter-rebuild-" + System.nanoTime();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            memberRepository.saveAndFlush(new Member(username, 20));
+            // 아직 커밋되지 않아 새 필터의 스냅샷에는 없는 상태에서 다른 스레드가 필터를 교체
+            Thread rebuild = new Thread(usernameFilter::rebuild);
+            rebuild.start();
+            assertThatCode(rebuild::join).doesNotThrowAnyException();
+        });
+
+        assertThat(usernameFilter.mightExist(username)).isTrue();
+        assertThat(memberRepository.existsByUsername(username)).isTrue();
+    }
+}
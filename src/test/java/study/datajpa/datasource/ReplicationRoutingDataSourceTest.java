@@ -0,0 +1,126 @@
+package study.datajpa.datasource;
+
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+// 서로 다른 두 개의 in-memory H2 를 primary / 복제본으로 두고 어느 쪽으로 라우팅되는지 DB 이름으로 확인
+class ReplicationRoutingDataSourceTest {
+
+    DataSource primary = new DriverManagerDataSource("jdbc:h2:mem:routing_primary;DB_CLOSE_DELAY=-1", "sa", "");
+    DataSource replica = new DriverManagerDataSource("jdbc:h2:mem:routing_replica;DB_CLOSE_DELAY=-1", "sa", "");
+
+    TransactionTemplate readWrite;
+    TransactionTemplate readOnly;
+    JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        setUp(Duration.ZERO);
+    }
+
+    void setUp(Duration readYourWritesWindow) {
+        ReplicationRoutingDataSource routing = new ReplicationRoutingDataSource(primary, List.of(replica), readYourWritesWindow);
+        routing.afterPropertiesSet();
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @Test
+    public void readOnlyTransactionGoesToReplica(){
+        assertThat(readOnly.execute(status -> currentDatabase())).isEqualToIgnoringCase("ROUTING_REPLICA");
+        assertThat(readWrite.execute(status -> currentDatabase())).isEqualToIgnoringCase("ROUTING_PRIMARY");
+        // 트랜잭션 밖(autocommit)의 실행도 primary
+        assertThat(currentDatabase()).isEqualToIgnoringCase("ROUTING_PRIMARY");
+    }
+
+    @AfterEach
+    void resetRequest() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    public void readYourWritesFollowsClientNotThread(){
+        setUp(Duration.ofMinutes(1));
+
+        // 클라이언트 A 의 쓰기 요청
+        MockHttpServletResponse writeResponse = new MockHttpServletResponse();
+        bindRequest(new MockHttpServletRequest(), writeResponse);
+        readWrite.executeWithoutResult(status -> currentDatabase());
+
+        // 쓰기 커밋 직후의 읽기는 복제 지연을 피해 primary 에서, 커밋 시각은 쿠키로 돌려줌
+        assertThat(readOnly.execute(status -> currentDatabase())).isEqualToIgnoringCase("ROUTING_PRIMARY");
+        Cookie lastWrite = writeResponse.getCookie(WriteSession.COOKIE);
+        assertThat(lastWrite).isNotNull();
+
+        // 같은 스레드를 이어서 쓰는 다른 클라이언트의 요청은 영향을 받지 않음
+        bindRequest(new MockHttpServletRequest(), new MockHttpServletResponse());
+        assertThat(readOnly.execute(status -> currentDatabase())).isEqualToIgnoringCase("ROUTING_REPLICA");
+
+        // 클라이언트 A 의 다음 요청이 다른 스레드에서 처리돼도 쿠키로 이어짐
+        String[] otherThread = new String[1];
+        Thread thread = new Thread(() -> {
+            MockHttpServletRequest next = new MockHttpServletRequest();
+            next.setCookies(lastWrite);
+            bindRequest(next, new MockHttpServletResponse());
+            otherThread[0] = readOnly.execute(status -> currentDatabase());
+        });
+        thread.start();
+        assertThatCode(thread::join).doesNotThrowAnyException();
+        assertThat(otherThread[0]).isEqualToIgnoringCase("ROUTING_PRIMARY");
+    }
+
+    @Test
+    public void workerThreadSeesRequestWrites(){
+        setUp(Duration.ofMinutes(1));
+        bindRequest(new MockHttpServletRequest(), new MockHttpServletResponse());
+        readWrite.executeWithoutResult(status -> currentDatabase());
+
+        // memberQueryExecutor 처럼 RequestContextTaskDecorator 로 감싼 작업
+        String[] worker = new String[1];
+        Thread thread = new Thread(new RequestContextTaskDecorator()
+                .decorate(() -> worker[0] = readOnly.execute(status -> currentDatabase())));
+        thread.start();
+        assertThatCode(thread::join).doesNotThrowAnyException();
+
+        assertThat(worker[0]).isEqualToIgnoringCase("ROUTING_PRIMARY");
+    }
+
+    @Test
+    public void noRequestNoTracking(){
+        setUp(Duration.ofMinutes(1));
+
+        readWrite.executeWithoutResult(status -> currentDatabase());
+
+        assertThat(readOnly.execute(status -> currentDatabase())).isEqualToIgnoringCase("ROUTING_REPLICA");
+    }
+
+    private static void bindRequest(MockHttpServletRequest request, MockHttpServletResponse response) {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request, response));
+    }
+
+    private String currentDatabase() {
+        return jdbcTemplate.queryForObject("select database()", String.class);
+    }
+}
@@ -0,0 +1,38 @@
+package study.datajpa.entity;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "app.auditing.mode=fast")
+@Transactional
+class AuditStampListenerTest {
+
+    @PersistenceContext
+    EntityManager em;
+
+    @Test
+    public void fastModeStampsOncePerTransaction(){
+        Member member1 = new Member("auditA", 10);
+        Member member2 = new Member("auditB", 20);
+        em.persist(member1);
+        em.persist(member2);
+
+        // 같은 트랜잭션이면 작성자를 한번만 조회하므로 같은 값
+        assertThat(member1.getCreatedBy()).isNotNull();
+        assertThat(member2.getCreatedBy()).isEqualTo(member1.getCreatedBy());
+        assertThat(member1.getCreatedDate()).isNotNull();
+        assertThat(member1.getLastModifiedDate()).isEqualTo(member1.getCreatedDate());
+
+        em.flush();
+        member1.setAge(11);
+        em.flush();
+
+        assertThat(member1.getLastModifiedBy()).isEqualTo(member1.getCreatedBy());
+        assertThat(member1.getLastModifiedDate()).isAfterOrEqualTo(member1.getCreatedDate());
+    }
+}
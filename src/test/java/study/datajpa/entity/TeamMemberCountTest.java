@@ -0,0 +1,123 @@
+package study.datajpa.entity;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Hibernate;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.repository.TeamRepository;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest
+@Transactional
+class TeamMemberCountTest {
+
+    @PersistenceContext EntityManager em;
+    @Autowired TeamRepository teamRepository;
+    @Autowired JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void insertChangeTeamAndDelete(){
+        Team teamA = new Team("countA");
+        Team teamB = new Team("countB");
+        em.persist(teamA);
+        em.persist(teamB);
+        Member member1 = new Member("count1", 10, teamA);
+        Member member2 = new Member("count2", 10, teamA);
+        Member member3 = new Member("count3", 10, teamB);
+        em.persist(member1);
+        em.persist(member2);
+        em.persist(member3);
+        em.flush();
+
+        assertThat(teamA.getMemberCount()).isEqualTo(2);
+        assertThat(counts(teamA, teamB)).containsEntry(teamA.getId(), 2).containsEntry(teamB.getId(), 1);
+
+        // 팀 변경은 member update 로 flush 되면서 이전 팀 -1, 새 팀 +1
+        member2.changeTeam(teamB);
+        em.remove(member1);
+        em.flush();
+
+        assertThat(counts(teamA, teamB)).containsEntry(teamA.getId(), 0).containsEntry(teamB.getId(), 2);
+        assertThat(teamB.getMemberCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void changeTeamDoesNotInitializeMembers(){
+        Team teamA = new Team("lazyA");
+        Team teamB = new Team("lazyB");
+        em.persist(teamA);
+        em.persist(teamB);
+        Member member = new Member("lazy", 10, teamA);
+        em.persist(member);
+        em.flush();
+        em.clear();
+
+        Member found = em.find(Member.class, member.getId());
+        Team target = em.find(Team.class, teamB.getId());
+        found.changeTeam(target);
+        em.flush();
+
+        assertThat(Hibernate.isInitialized(target.getMembers())).isFalse();
+        assertThat(target.getMemberCount()).isEqualTo(1);
+        assertThat(counts(teamA, teamB)).containsEntry(teamA.getId(), 0).containsEntry(teamB.getId(), 1);
+    }
+
+    // 자동 flush 로 반영된 증감을 같은 트랜잭션의 조회가 봄
+    @Test
+    public void autoFlushAppliesBeforeQuery(){
+        Team team = new Team("autoFlush");
+        em.persist(team);
+        em.persist(new Member("autoFlush1", 10, team));
+
+        List<Integer> counts = em.createQuery("select t.memberCount from Team t where t.id = :id", Integer.class)
+                .setParameter("id", team.getId())
+                .getResultList();
+
+        assertThat(counts).containsExactly(1);
+    }
+
+    // 이미 있는 팀에 member 만 추가한 경우 team 조회만으로는 자동 flush 가 일어나지 않음
+    @Test
+    public void pendingMemberChangesAreCountedForExistingTeam(){
+        Team team = new Team("existing");
+        em.persist(team);
+        em.persist(new Member("existing1", 10, team));
+        em.flush();
+        em.clear();
+
+        Team found = em.find(Team.class, team.getId());
+        Member added = new Member("existing2", 10, found);
+        em.persist(added);
+
+        assertThat(counts(found)).containsEntry(team.getId(), 2);
+
+        em.remove(added);
+
+        assertThat(counts(found)).containsEntry(team.getId(), 1);
+    }
+
+    @Test
+    public void recountMembers(){
+        Team team = new Team("recount");
+        em.persist(team);
+        em.persist(new Member("recount1", 10, team));
+        em.flush();
+        jdbcTemplate.update("update team set member_count = 99 where team_id = ?", team.getId());
+
+        teamRepository.recountMembers();
+
+        assertThat(counts(team)).containsEntry(team.getId(), 1);
+    }
+
+    private Map<Long, Integer> counts(Team... teams) {
+        return teamRepository.findMemberCounts(List.of(teams).stream().map(Team::getId).toList());
+    }
+}
@@ -0,0 +1,170 @@
+package study.datajpa.ingest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import study.datajpa.cache.MemberCountCache;
+import study.datajpa.cache.UsernameFilter;
+import study.datajpa.cache.UsernameFilterProperties;
+import study.datajpa.entity.AuditStampListener;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+// 적재는 writer 스레드에서 각자 커밋하므로 테스트 트랜잭션으로 롤백할 수 없음, 실행마다 다른 username 접두어 사용
+@SpringBootTest(properties = {"app.ingest.chunk-size=100", "app.ingest.writer-threads=3", "app.ingest.queue-capacity=2"})
+class BulkIngestorTest {
+
+    @Autowired BulkIngestor bulkIngestor;
+    @Autowired JdbcTemplate jdbcTemplate;
+    @Autowired UsernameFilter usernameFilter;
+    @Autowired IngestProperties ingestProperties;
+    @Autowired EntityManagerFactory emf;
+    @Autowired EntityManager em;
+    @Autowired PlatformTransactionManager transactionManager;
+    @Autowired UsernameFilterProperties usernameFilterProperties;
+    @Autowired ObjectMapper objectMapper;
+    @Autowired AuditStampListener auditStampListener;
+    @Autowired AuditorAware<String> auditorAware;
+    @Autowired MemberCountCache memberCountCache;
+    @Autowired MeterRegistry meterRegistry;
+
+    @Test
+    public void csvMembersInChunks(){
+        String prefix = "csv" + System.nanoTime() + "_";
+        StringBuilder csv = new StringBuilder("username,age\n");
+        for (int i = 0; i < 1_050; i++) {
+            csv.append(prefix).append(i).append(',').append(i % 100).append('\n');
+        }
+        csv.append("\"").append(prefix).append("quoted,\"\"name\"\"\",7\n");
+
+        IngestResult result = bulkIngestor.ingestMembers(stream(csv.toString()), IngestFormat.CSV, false);
+
+        assertThat(result.rows()).isEqualTo(1_051);
+        assertThat(result.chunks()).isEqualTo(11);
+        assertThat(countMembers(prefix)).isEqualTo(1_051);
+        assertThat(jdbcTemplate.queryForObject("select age from member where username = ?", Integer.class,
+                prefix + "quoted,\"name\"")).isEqualTo(7);
+        // StatelessSession 은 엔티티 리스너를 호출하지 않으므로 auditStamp 가 false 면 감사 필드가 비어있음
+        assertThat(jdbcTemplate.queryForObject("select count(*) from member where username like ? and created_date is null",
+                Long.class, prefix + "%")).isEqualTo(1_051);
+        // 이벤트 리스너 대신 적재 후 직접 추가
+        assertThat(usernameFilter.mightExist(prefix + "1000")).isTrue();
+    }
+
+    @Test
+    public void ndjsonMembersWithAuditStamp(){
+        String prefix = "json" + System.nanoTime() + "_";
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < 250; i++) {
+            ndjson.append("{\"username\":\"").append(prefix).append(i).append("\",\"age\":").append(i).append("}\n");
+        }
+
+        bulkIngestor.ingestMembers(stream(ndjson.toString()), IngestFormat.NDJSON, true);
+
+        assertThat(jdbcTemplate.queryForObject(
+                "select count(*) from member where username like ? and created_date is not null" +
+                        " and created_by is not null and last_modified_date = created_date and version = 0",
+                Long.class, prefix + "%")).isEqualTo(250);
+    }
+
+    @Test
+    public void items(){
+        Long before = jdbcTemplate.queryForObject("select count(*) from item", Long.class);
+
+        IngestResult result = bulkIngestor.ingestItems(stream("{}\n{}\n\n{}\n"), IngestFormat.NDJSON);
+
+        assertThat(result.rows()).isEqualTo(3);
+        assertThat(jdbcTemplate.queryForObject("select count(*) from item", Long.class)).isEqualTo(before + 3);
+    }
+
+    @Test
+    public void malformedRecordStopsWithLineNumber(){
+        String prefix = "bad" + System.nanoTime() + "_";
+        StringBuilder csv = new StringBuilder("username,age\n");
+        for (int i = 0; i < 300; i++) {
+            csv.append(prefix).append(i).append(",1\n");
+        }
+        csv.append(prefix).append("x,notANumber\n");
+
+        assertThatThrownBy(() -> bulkIngestor.ingestMembers(stream(csv.toString()), IngestFormat.CSV, false))
+                .isInstanceOf(IngestionFailedException.class)
+                .hasMessageContaining("line 302")
+                .satisfies(e -> assertThat(((IngestionFailedException) e).getCommittedRows())
+                        .isEqualTo(countMembers(prefix)));
+    }
+
+    @Test
+    public void filterFailureStopsIngestion(){
+        // 묶음마다 username filter 추가가 실패하는 writer
+        UsernameFilter failingFilter = new UsernameFilter(em, emf, transactionManager, usernameFilterProperties) {
+            @Override
+            public void add(String username) {
+                throw new IllegalStateException("filter down");
+            }
+        };
+        BulkIngestor ingestor = new BulkIngestor(emf, ingestProperties, objectMapper, auditStampListener,
+                auditorAware, failingFilter, memberCountCache, meterRegistry, 100);
+        String prefix = "filterDown" + System.nanoTime() + "_";
+        StringBuilder csv = new StringBuilder("username,age\n");
+        for (int i = 0; i < 3_000; i++) {
+            csv.append(prefix).append(i).append(",1\n");
+        }
+
+        // 묶음 30개 > 큐 2칸, writer 가 실패를 남기지 않고 끝나면 파서가 큐에서 영원히 기다림
+        assertTimeoutPreemptively(Duration.ofSeconds(30), () ->
+                assertThatThrownBy(() -> ingestor.ingestMembers(stream(csv.toString()), IngestFormat.CSV, false))
+                        .isInstanceOf(IngestionFailedException.class)
+                        .hasRootCauseMessage("filter down"));
+    }
+
+    @Test
+    public void usernamesCommittedDuringRebuildAreKept() throws Exception {
+        String prefix = "rebuildIngest" + System.nanoTime() + "_";
+        StringBuilder csv = new StringBuilder("username,age\n");
+        for (int i = 0; i < 3_000; i++) {
+            csv.append(prefix).append(i).append(",1\n");
+        }
+
+        // 적재하는 동안 rebuild 를 계속 돌려서, 스냅샷을 뜬 뒤에 커밋된 묶음이 생기게 함
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<IngestResult> ingest = executor.submit(() ->
+                    bulkIngestor.ingestMembers(stream(csv.toString()), IngestFormat.CSV, false));
+            while (!ingest.isDone()) {
+                usernameFilter.rebuild();
+            }
+            assertThat(ingest.get().rows()).isEqualTo(3_000);
+        } finally {
+            executor.shutdown();
+        }
+
+        // 마지막 rebuild 이후 커밋된 묶음의 username 도 필터에 남아 있어야 함 (없다고 하면 존재하는 행을 못 찾음)
+        assertThat(IntStream.range(0, 3_000).mapToObj(i -> prefix + i))
+                .allMatch(usernameFilter::mightExist);
+    }
+
+    private long countMembers(String prefix) {
+        return jdbcTemplate.queryForObject("select count(*) from member where username like ?", Long.class, prefix + "%");
+    }
+
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
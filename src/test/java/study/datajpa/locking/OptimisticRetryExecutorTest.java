@@ -0,0 +1,76 @@
+package study.datajpa.locking;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.*;
+
+// 재시도가 트랜잭션 단위로 일어나야 하므로 테스트 자체는 트랜잭션 없이 실행
+@SpringBootTest(properties = "app.optimistic-retry.max-attempts=100")
+class OptimisticRetryExecutorTest {
+
+    @Autowired OptimisticRetryExecutor retryExecutor;
+    @Autowired MemberRepository memberRepository;
+    @Autowired TransactionTemplate transactionTemplate;
+
+    @Test
+    public void concurrentIncrementsAreNotLost() throws Exception {
+        Long id = memberRepository.save(new Member("optimistic", 0)).getId();
+        int threads = 8;
+        int incrementsPerThread = 10;
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < incrementsPerThread; i++) {
+                        retryExecutor.executeWithoutResult(() -> {
+                            Member member = memberRepository.findById(id).get();
+                            member.setAge(member.getAge() + 1);
+                        });
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        Member member = memberRepository.findById(id).get();
+        assertThat(member.getAge()).isEqualTo(threads * incrementsPerThread);
+        assertThat(member.getVersion()).isEqualTo((long) threads * incrementsPerThread);
+    }
+
+    @Test
+    public void staleVersionIsRejected() {
+        Long id = memberRepository.save(new Member("stale", 0)).getId();
+        Member stale = memberRepository.findById(id).get();
+
+        retryExecutor.executeWithoutResult(() -> memberRepository.findById(id).get().setAge(1));
+
+        stale.setAge(2);
+        assertThatThrownBy(() -> memberRepository.save(stale))
+                .isInstanceOf(OptimisticLockingFailureException.class);
+    }
+
+    @Test
+    public void rejectsSurroundingTransaction() {
+        assertThatThrownBy(() -> transactionTemplate.executeWithoutResult(
+                status -> retryExecutor.executeWithoutResult(() -> { })))
+                .isInstanceOf(IllegalStateException.class);
+    }
+}
@@ -0,0 +1,60 @@
+package study.datajpa.monitoring;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.*;
+
+class QueryCounterTest {
+
+    @Test
+    public void closingTwiceDoesNotPopOuterScope(){
+        try (QueryCounter.Scope outer = QueryCounter.open()) {
+            QueryCounter.Scope inner = QueryCounter.open();
+            inner.close();
+            inner.close();
+
+            QueryCounter.record("select 1");
+
+            assertThat(outer.getCount()).isEqualTo(1);
+            assertThat(inner.getCount()).isZero();
+        }
+        // 모두 닫힌 뒤에는 어느 범위에도 세지 않음
+        QueryCounter.record("select 1");
+    }
+
+    @Test
+    public void outOfOrderCloseKeepsInnerScope(){
+        QueryCounter.Scope outer = QueryCounter.open();
+        QueryCounter.Scope inner = QueryCounter.open();
+
+        // 바깥 범위를 먼저 닫으면 그 범위만 세지 않고 안쪽 범위는 그대로
+        outer.close();
+        QueryCounter.record("select 1");
+        assertThat(inner.getCount()).isEqualTo(1);
+        assertThat(outer.getCount()).isZero();
+
+        inner.close();
+        try (QueryCounter.Scope next = QueryCounter.open()) {
+            QueryCounter.record("select 1");
+            assertThat(next.getCount()).isEqualTo(1);
+        }
+        assertThat(inner.getCount()).isEqualTo(1);
+        assertThat(outer.getCount()).isZero();
+    }
+
+    @Test
+    public void closingFromAnotherThreadLeavesThisThreadAlone() throws InterruptedException {
+        try (QueryCounter.Scope scope = QueryCounter.open()) {
+            QueryCounter.Scope inner = QueryCounter.open();
+            Thread other = new Thread(inner::close);
+            other.start();
+            other.join();
+
+            QueryCounter.record("select 1");
+
+            // 닫힌 inner 는 세지 않지만 이 스레드의 스택은 그대로라 바깥 범위는 계속 셈
+            assertThat(inner.getCount()).isZero();
+            assertThat(scope.getCount()).isEqualTo(1);
+        }
+    }
+}
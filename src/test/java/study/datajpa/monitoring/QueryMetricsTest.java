@@ -0,0 +1,58 @@
+package study.datajpa.monitoring;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+class QueryMetricsTest {
+
+    @Test
+    public void inListsShareOneShape(){
+        QueryMetrics metrics = new QueryMetrics(new SimpleMeterRegistry(), 1.0, 500);
+
+        String two = metrics.shape("select m1_0.member_id from member m1_0 where m1_0.username in (?,?)");
+        String four = metrics.shape("select m1_0.member_id from member m1_0\n where m1_0.username in (?, ?, ?, ?)");
+
+        assertThat(two).isEqualTo(four);
+        assertThat(two).isEqualTo("select m1_0.member_id from member m1_0 where m1_0.username in (?...)");
+    }
+
+    @Test
+    public void shapesOverLimitAreGrouped(){
+        QueryMetrics metrics = new QueryMetrics(new SimpleMeterRegistry(), 1.0, 1);
+
+        metrics.shape("select 1");
+
+        assertThat(metrics.shape("select 2")).isEqualTo("other");
+    }
+
+    @Test
+    public void recordsPercentilesPerMethod(){
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        QueryMetrics metrics = new QueryMetrics(registry, 1.0, 500);
+
+        for (int i = 1; i <= 100; i++) {
+            metrics.recordRepository("MemberRepository", "findById", TimeUnit.MILLISECONDS.toNanos(i), 1);
+        }
+
+        Timer timer = registry.find(QueryMetrics.REPOSITORY_TIMER).tag("method", "findById").timer();
+        assertThat(timer).isNotNull();
+        assertThat(timer.count()).isEqualTo(100);
+        assertThat(timer.takeSnapshot().percentileValues()).hasSize(2);
+        assertThat(timer.max(TimeUnit.MILLISECONDS)).isEqualTo(100);
+        assertThat(registry.find(QueryMetrics.REPOSITORY_ROWS).summary().mean()).isEqualTo(1.0);
+    }
+
+    @Test
+    public void sampleRateZeroNeverSamples(){
+        QueryMetrics metrics = new QueryMetrics(new SimpleMeterRegistry(), 0.0, 500);
+
+        for (int i = 0; i < 1_000; i++) {
+            assertThat(metrics.sample()).isFalse();
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package study.datajpa.monitoring;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.PersistenceContextSync;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+
+// threshold 를 0 으로 두면 모든 SQL 이 느린 쿼리로 기록됨
+@SpringBootTest(properties = {"app.slow-query.enabled=true", "app.slow-query.threshold=0ms", "app.slow-query.capacity=20"})
+@Transactional
+class SlowQueryLogTest {
+
+    @Autowired MemberRepository memberRepository;
+    @Autowired SlowQueryLog slowQueryLog;
+
+    @BeforeEach
+    public void clear(){
+        slowQueryLog.clear();
+    }
+
+    @Test
+    public void recordsCallerCardinalityAndPlan() throws InterruptedException {
+        memberRepository.save(new Member("slow", 10));
+
+        memberRepository.findByNames(List.of("slow", "slow1", "slow2"));
+
+        SlowQuery slowQuery = find("MemberRepository.findByNames");
+        assertThat(slowQuery.getSql()).contains("(?...)");
+        // in_clause_parameter_padding 으로 3 -> 4
+        assertThat(slowQuery.getInListSizes()).containsExactly(4);
+        assertThat(slowQuery.getParameterCount()).isEqualTo(4);
+        assertThat(slowQuery.getRows()).isGreaterThanOrEqualTo(1);
+
+        String plan = awaitPlan(slowQuery);
+        assertThat(plan).containsIgnoringCase("member");
+        assertThat(plan).contains("scanCount");
+    }
+
+    @Test
+    public void writesAreNotExplained() throws InterruptedException {
+        memberRepository.save(new Member("slow", 10));
+
+        memberRepository.bulkAgePlus(1_000);
+        // select member_id from final table (update ...)
+        memberRepository.bulkAgePlus(1_000, PersistenceContextSync.DETACH);
+
+        List<SlowQuery> updates = slowQueryLog.getEntries().stream()
+                .filter(entry -> "MemberRepository.bulkAgePlus".equals(entry.getRepositoryMethod()))
+                .filter(entry -> entry.getSql().contains("update"))
+                .toList();
+        assertThat(updates).hasSize(2);
+
+        // 같은 흐름의 select 는 EXPLAIN 되는지 함께 확인해서, 아직 실행되지 않아 null 인 것과 구분
+        memberRepository.findByNames(List.of("slow-explained"));
+        SlowQuery select = find("MemberRepository.findByNames");
+        assertThat(slowQueryLog.awaitExplains(Duration.ofSeconds(5))).isTrue();
+
+        assertThat(select.getPlan()).isNotNull();
+        assertThat(updates).allSatisfy(update -> assertThat(update.getPlan()).isNull());
+    }
+
+    @Test
+    public void ringBufferKeepsNewest(){
+        for (int i = 0; i < 30; i++) {
+            memberRepository.findOptionalByUsername("slow" + i);
+        }
+
+        List<SlowQuery> entries = slowQueryLog.getEntries();
+        assertThat(entries).hasSize(20);
+        assertThat(entries.get(0).getOccurredAt()).isAfterOrEqualTo(entries.get(19).getOccurredAt());
+    }
+
+    private SlowQuery find(String repositoryMethod) {
+        Optional<SlowQuery> slowQuery = slowQueryLog.getEntries().stream()
+                .filter(entry -> repositoryMethod.equals(entry.getRepositoryMethod()))
+                .findFirst();
+        assertThat(slowQuery).as(repositoryMethod).isPresent();
+        return slowQuery.get();
+    }
+
+    private static String awaitPlan(SlowQuery slowQuery) throws InterruptedException {
+        for (int i = 0; i < 50 && slowQuery.getPlan() == null; i++) {
+            Thread.sleep(100);
+        }
+        assertThat(slowQuery.getPlan()).isNotNull();
+        return slowQuery.getPlan();
+    }
+}
@@ -0,0 +1,18 @@
+package study.datajpa.readonly;
+
+import org.springframework.data.repository.Repository;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.datajpa.entity.Member;
+
+import java.util.List;
+
+// 타입 레벨 @ReadOnlyQuery 확인용 조회 전용 리포지토리
+@ReadOnlyQuery
+public interface ReadOnlyMemberRepository extends Repository<Member, Long> {
+
+    List<Member> findByUsername(String username);
+
+    default boolean currentTransactionReadOnly() {
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+}
@@ -0,0 +1,78 @@
+package study.datajpa.readonly;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest
+@Transactional
+class ReadOnlyQueriesTest {
+
+    @Autowired ReadOnlyQueries readOnlyQueries;
+    @Autowired MemberRepository memberRepository;
+    @Autowired ReadOnlyMemberRepository readOnlyMemberRepository;
+    @Autowired EntityManager em;
+    @Autowired JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void writeTransactionIsLeftUntouched(){
+        Member saved = memberRepository.save(new Member("readOnly1", 141));
+        em.flush();
+        em.clear();
+        Session session = em.unwrap(Session.class);
+
+        // 쓰기 트랜잭션 안에서는 세션을 바꾸지 않으므로 로딩한 엔티티의 변경이 그대로 저장됨
+        List<Member> members = readOnlyMemberRepository.findByUsername("readOnly1");
+        Member member = members.stream().filter(m -> m.getId().equals(saved.getId())).findFirst().orElseThrow();
+        List<String> usernames = readOnlyQueries.call(() -> {
+            assertThat(session.isDefaultReadOnly()).isFalse();
+            assertThat(session.getHibernateFlushMode()).isEqualTo(FlushMode.AUTO);
+            return memberRepository.findUsernameList();
+        });
+        member.setUsername("readOnly1changed");
+        em.flush();
+
+        assertThat(usernames).contains("readOnly1");
+        assertThat(session.isReadOnly(member)).isFalse();
+        assertThat(jdbcTemplate.queryForObject("select username from member where member_id = ?", String.class,
+                member.getId())).isEqualTo("readOnly1changed");
+    }
+
+    @Test
+    public void callChainSeesPendingChanges(){
+        memberRepository.save(new Member("readOnly3", 10));
+
+        List<String> usernames = readOnlyQueries.call(memberRepository::findUsernameList);
+
+        assertThat(usernames).contains("readOnly3");
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void typeLevelAnnotationOpensReadOnlyTransaction(){
+        // 타입에 붙은 @ReadOnlyQuery 는 JpaRepository 에서 물려받지 않은 default 메서드에도 적용됨
+        assertThat(readOnlyMemberRepository.currentTransactionReadOnly()).isTrue();
+        assertThat(readOnlyMemberRepository.findByUsername("readOnly-none")).isEmpty();
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void outsideTransactionOpensReadOnlyTransaction(){
+        boolean readOnly = readOnlyQueries.call(TransactionSynchronizationManager::isCurrentTransactionReadOnly);
+
+        assertThat(readOnly).isTrue();
+    }
+}
@@ -0,0 +1,61 @@
+package study.datajpa.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.monitoring.QueryCounter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+// 배치 크기(기본 100)보다 팀이 적으면 한번에 다 읽혀서 배치로 나뉘는지 알 수 없으므로 배치 크기를 2 로 줄임
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.default_batch_fetch_size=2")
+@Transactional
+class BatchFetchTest {
+
+    private static final int BATCH_FETCH_SIZE = 2;
+
+    @Autowired MemberRepository memberRepository;
+    @Autowired TeamRepository teamRepository;
+    @PersistenceContext
+    EntityManager em;
+
+    @Test
+    public void batchFetch(){
+        // given
+        String username = "batchFetch" + System.nanoTime();
+        int teamCount = 5;
+        List<Long> teamIds = new ArrayList<>();
+        for (int i = 0; i < teamCount; i++) {
+            Team team = new Team("batchFetchTeam" + i);
+            teamRepository.save(team);
+            teamIds.add(team.getId());
+            memberRepository.save(new Member(username, 10, team));
+            memberRepository.save(new Member(username, 20, team));
+        }
+        em.flush();
+        em.clear();
+        em.getEntityManagerFactory().getCache().evictAll();
+
+        // when
+        // member -> team: member 조회 1번 + ceil(5 / 2) = 3번
+        long memberToTeam = QueryCounter.count(() -> memberRepository.findListByUsername(username)
+                .forEach(member -> member.getTeam().getName()));
+        em.clear();
+        em.getEntityManagerFactory().getCache().evictAll();
+        // team -> members: team 조회 1번 + subselect 1번 (배치 크기와 관계없음)
+        long teamToMembers = QueryCounter.count(() -> teamRepository.findAllById(teamIds)
+                .forEach(team -> team.getMembers().size()));
+
+        // then
+        assertThat(memberToTeam).isEqualTo(1 + (teamCount + BATCH_FETCH_SIZE - 1) / BATCH_FETCH_SIZE).isEqualTo(4);
+        assertThat(teamToMembers).isEqualTo(2);
+    }
+}
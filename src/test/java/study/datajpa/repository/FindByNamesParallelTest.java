@@ -0,0 +1,72 @@
+package study.datajpa.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.monitoring.QueryCounter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+// findByNames 의 묶음 조회가 동시에 실행되는 경로는 트랜잭션/EntityManager 가 없을 때만 타므로 테스트 트랜잭션 없이 확인
+// chunk-size 를 4 로 줄여서 이름 10개 = 묶음 3개
+@SpringBootTest(properties = "app.in-query.chunk-size=4")
+class FindByNamesParallelTest {
+
+    @Autowired MemberRepository memberRepository;
+    @Autowired TeamRepository teamRepository;
+    @Autowired EntityManagerFactory emf;
+
+    String prefix;
+    List<String> names;
+
+    @BeforeEach
+    void seed() {
+        prefix = "parallelNames" + System.nanoTime() + "_";
+        Team team = teamRepository.save(new Team(prefix + "team"));
+        names = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            memberRepository.save(new Member(prefix + i, i, team));
+            names.add(prefix + i);
+        }
+    }
+
+    @Test
+    public void chunksRunInParallelWithoutBoundEntityManager(){
+        List<Member> result = new ArrayList<>();
+
+        // 묶음 조회는 memberQueryExecutor 스레드에서 실행되므로 호출한 스레드에서 센 SQL 은 없음
+        long statements = QueryCounter.count(() -> result.addAll(memberRepository.findByNames(names)));
+
+        assertThat(statements).isZero();
+        assertThat(result).extracting(Member::getUsername).containsExactlyInAnyOrderElementsOf(names);
+    }
+
+    @Test
+    public void boundEntityManagerRunsChunksSequentially(){
+        // open-in-view 와 같은 상태 - 트랜잭션은 없고 요청에 EntityManager 만 묶여 있음
+        EntityManager em = emf.createEntityManager();
+        TransactionSynchronizationManager.bindResource(emf, new EntityManagerHolder(em));
+        try {
+            List<Member> result = new ArrayList<>();
+            long statements = QueryCounter.count(() -> result.addAll(memberRepository.findByNames(names)));
+
+            assertThat(statements).isEqualTo(3);
+            assertThat(result).hasSize(10).allMatch(em::contains);
+            // 묶인 EntityManager 가 열려있으므로 지연 로딩도 됨
+            assertThat(result.get(0).getTeam().getName()).isEqualTo(prefix + "team");
+        } finally {
+            TransactionSynchronizationManager.unbindResource(emf);
+            em.close();
+        }
+    }
+}
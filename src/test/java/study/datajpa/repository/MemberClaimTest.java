@@ -0,0 +1,91 @@
+package study.datajpa.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.assertj.core.api.Assertions.*;
+
+// 워커들이 각자 트랜잭션으로 claimUnprocessed -> markProcessed 를 반복하며 backlog 를 비움
+// 락은 커밋 시점까지 유지되어야 하므로 테스트 자체는 트랜잭션 없이 실행
+// claimUnprocessed 는 미처리 member 를 전부 가져가므로 다른 테스트의 행을 건드리지 않도록 이 테스트만의 in-memory DB 사용
+// 워커 수에 따른 처리 시간은 benchmark/MemberClaimBenchmarkTest
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:claim;DB_CLOSE_DELAY=-1")
+class MemberClaimTest {
+
+    private static final int BACKLOG = 400;
+    private static final int CLAIM_SIZE = 10;
+
+    @Autowired MemberRepository memberRepository;
+    @Autowired TransactionTemplate transactionTemplate;
+
+    @Test
+    public void noDoubleProcessing() throws Exception {
+        List<Long> ids = seed("claim");
+        Set<Long> processed = ConcurrentHashMap.newKeySet();
+        LongAdder duplicates = new LongAdder();
+
+        drain(4, processed, duplicates);
+
+        assertThat(duplicates.sum()).isZero();
+        assertThat(processed).containsExactlyInAnyOrderElementsOf(ids);
+        assertThat(transactionTemplate.execute(status -> memberRepository.claimUnprocessed(1))).isEmpty();
+    }
+
+    @Test
+    public void claimRequiresTransaction() {
+        assertThatThrownBy(() -> memberRepository.claimUnprocessed(1))
+                .isInstanceOf(org.springframework.transaction.IllegalTransactionStateException.class);
+    }
+
+    private List<Long> seed(String prefix) {
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < BACKLOG; i++) {
+            members.add(new Member(prefix + i, i % 100));
+        }
+        memberRepository.saveAllBatched(members);
+        return members.stream().map(Member::getId).toList();
+    }
+
+    // 모든 워커가 더 가져갈 행이 없을 때까지 돌림
+    private void drain(int workers, Set<Long> processed, LongAdder duplicates) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(workers);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int w = 0; w < workers; w++) {
+                futures.add(executor.submit(() -> {
+                    int claimed;
+                    do {
+                        claimed = transactionTemplate.execute(status -> {
+                            List<Member> batch = memberRepository.claimUnprocessed(CLAIM_SIZE);
+                            for (Member member : batch) {
+                                if (!processed.add(member.getId())) {
+                                    duplicates.increment();
+                                }
+                                member.markProcessed();
+                            }
+                            return batch.size();
+                        });
+                    } while (claimed > 0);
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -105,12 +105,14 @@ class MemberJpaRepositoryTest {
         memberJpaRepository.save(new Member("member4",12));
         memberJpaRepository.save(new Member("member5",31));
         memberJpaRepository.save(new Member("member6",22));
-        memberJpaRepository.save(new Member("member7",40));
+        Member member7 = memberJpaRepository.save(new Member("member7",40));
 
         // when
         int resultCount = memberJpaRepository.bulkAgePlus(20);
 
         // then
         assertThat(resultCount).isEqualTo(3);
+        // 영속성 컨텍스트에 있던 member7 도 DB 값으로 맞춰짐
+        assertThat(member7.getAge()).isEqualTo(41);
     }
 }
\ No newline at end of file
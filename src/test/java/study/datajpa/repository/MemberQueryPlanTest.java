@@ -0,0 +1,70 @@
+package study.datajpa.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.entity.Member;
+import study.datajpa.monitoring.QueryCounter;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+// username/age 조건 리포지토리 쿼리가 실제로 실행하는 SQL 을 모아서 EXPLAIN 으로 member 풀 스캔 여부를 확인
+// H2 는 인덱스를 못 쓰면 계획에 /* PUBLIC.MEMBER_TABLE_SCAN */ 을 표시함
+// bulkAgePlus 도 실행하므로 트랜잭션은 롤백
+@SpringBootTest
+@Transactional
+class MemberQueryPlanTest {
+
+    private static final String MEMBER_TABLE_SCAN = "MEMBER_TABLE_SCAN";
+
+    @Autowired MemberRepository memberRepository;
+    @Autowired JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void usernameAndAgeQueriesUseIndexes(){
+        // 없는 이름은 username filter 가 쿼리 없이 끝내므로 조회할 이름을 저장해 둠 (flush 해서 insert 가 캡처되지 않게)
+        memberRepository.saveAndFlush(new Member("plan", 10));
+
+        Map<String, Runnable> queries = new LinkedHashMap<>();
+        queries.put("findListByUsername", () -> memberRepository.findListByUsername("plan"));
+        queries.put("findMemberByUsername", () -> memberRepository.findMemberByUsername("plan"));
+        queries.put("findOptionalByUsername", () -> memberRepository.findOptionalByUsername("plan"));
+        queries.put("findByNames", () -> memberRepository.findByNames(List.of("plan1", "plan2")));
+        queries.put("findEntityGraphByUsername", () -> memberRepository.findEntityGraphByUsername("plan"));
+        queries.put("findLockByUsername", () -> memberRepository.findLockByUsername("plan"));
+        queries.put("findByUsernameAndAgeGreaterThan", () -> memberRepository.findByUsernameAndAgeGreaterThan("plan", 10));
+        queries.put("findByAge", () -> memberRepository.findByAge(10,
+                PageRequest.of(1, 3, Sort.by(Sort.Direction.ASC, "username"))));
+        queries.put("bulkAgePlus", () -> memberRepository.bulkAgePlus(1_000));
+
+        List<String> tableScans = new ArrayList<>();
+        queries.forEach((name, query) -> {
+            List<String> statements = QueryCounter.capture(query);
+            assertThat(statements).as(name).isNotEmpty();
+            for (String sql : statements) {
+                String plan = explain(sql);
+                if (plan.contains(MEMBER_TABLE_SCAN)) {
+                    tableScans.add(name + ": " + plan);
+                }
+            }
+        });
+
+        assertThat(tableScans).as("queries scanning the member table").isEmpty();
+    }
+
+    // 파라미터 값은 계획에 영향을 주지 않으므로 모두 null 로 바인딩
+    private String explain(String sql) {
+        int parameterCount = (int) sql.chars().filter(c -> c == '?').count();
+        List<String> rows = jdbcTemplate.queryForList("explain " + sql, String.class, new Object[parameterCount]);
+        return String.join("\n", rows);
+    }
+}
@@ -13,14 +13,21 @@ import org.springframework.data.domain.Sort;
 import org.springframework.test.annotation.Rollback;
 import org.springframework.transaction.annotation.Transactional;
 import study.datajpa.dto.MemberDto;
+import study.datajpa.dto.MemberView;
 import study.datajpa.entity.Member;
 import study.datajpa.entity.Team;
+import study.datajpa.monitoring.QueryBudgetExceededException;
+import study.datajpa.monitoring.QueryCounter;
 
 import javax.swing.text.html.Option;
 import java.lang.reflect.Array;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.*;
 
@@ -126,6 +133,36 @@ class MemberRepositoryTest {
         }
     }
 
+    @Test
+    public void asyncQueries(){
+        // 비동기 조회는 별도 트랜잭션이라 이 테스트 트랜잭션에서 쓴 데이터는 보이지 않음
+        // 여기서는 아무것도 쓰지 않고 커밋된 데이터 기준으로 동기 조회 결과와 비교
+        long total = memberRepository.count();
+
+        List<String> usernames = memberRepository.findUsernameListAsync().join();
+
+        assertThat(memberRepository.countAsync().join()).isEqualTo(total);
+        assertThat(usernames).hasSize((int) total);
+        assertThat(memberRepository.findMemberDtoAsync().join()).hasSize(memberRepository.findMemberDto().size());
+    }
+
+    @Test
+    public void streamMemberDto(){
+        Team team = new Team("streamTeam");
+        teamRepository.save(team);
+        memberRepository.save(new Member("streamA", 10, team));
+        memberRepository.save(new Member("streamB", 20));
+
+        // Stream 은 트랜잭션 안에서 소비하고 close 해야 커서가 정리됨
+        List<MemberDto> result;
+        try (Stream<MemberDto> stream = memberRepository.streamMemberDto(10)) {
+            result = stream.filter(dto -> dto.getUsername().startsWith("stream")).toList();
+        }
+
+        assertThat(result).extracting("username").containsExactly("streamA", "streamB");
+        assertThat(result).extracting("teamName").containsExactly("streamTeam", null);
+    }
+
     @Test
     public void findByNames(){
         Member m1 = new Member("AAA",10);
@@ -139,6 +176,32 @@ class MemberRepositoryTest {
         }
     }
 
+    @Test
+    public void findByNamesLargeLists(){
+        String prefix = "names" + System.nanoTime() + "_";
+        memberRepository.save(new Member(prefix + "first", 10));
+        memberRepository.save(new Member(prefix + "last", 20));
+
+        // chunk-size(512) 를 넘는 리스트 -> 묶음으로 나눠 조회
+        List<String> chunked = new ArrayList<>();
+        chunked.add(prefix + "first");
+        for (int i = 0; i < 1_000; i++) {
+            chunked.add(prefix + "missing" + i);
+        }
+        chunked.add(prefix + "last");
+
+        // temp-table-threshold(10000) 이상 -> 임시 테이블 join
+        List<String> tempTable = new ArrayList<>(chunked);
+        for (int i = 0; i < 10_000; i++) {
+            tempTable.add(prefix + "absent" + i);
+        }
+
+        assertThat(memberRepository.findByNames(chunked)).extracting(Member::getUsername)
+                .containsExactlyInAnyOrder(prefix + "first", prefix + "last");
+        assertThat(memberRepository.findByNames(tempTable)).extracting(Member::getUsername)
+                .containsExactlyInAnyOrder(prefix + "first", prefix + "last");
+    }
+
     @Test
     public void returnType(){
         Member m1 = new Member("AAA", 10);
@@ -202,6 +265,95 @@ class MemberRepositoryTest {
         assertThat(page.hasNext()).isTrue();
     }
 
+    @Test
+    public void pagingCountCached(){
+        // given
+        for (int i = 0; i < 5; i++) {
+            memberRepository.save(new Member("count" + i, 150));
+        }
+        PageRequest pageRequest = PageRequest.of(0, 3, Sort.by(Sort.Direction.ASC, "username"));
+
+        // when
+        Page<Member> page = memberRepository.findByAgeCountCached(150, pageRequest);
+        // 커밋 안 된 insert 가 있는 트랜잭션 안에서는 캐시를 거치지 않고 매번 count
+        memberRepository.save(new Member("count5", 150));
+        Page<Member> afterInsert = memberRepository.findByAgeCountCached(150, pageRequest);
+
+        // then
+        assertThat(page.getContent()).extracting("username").containsExactly("count0", "count1", "count2");
+        assertThat(page.getTotalElements()).isEqualTo(5);
+        assertThat(afterInsert.getTotalElements()).isEqualTo(6);
+    }
+
+    @Test
+    public void projectionPaging(){
+        Team team = teamRepository.save(new Team("projectionTeam"));
+        memberRepository.save(new Member("projection1", 10, team));
+        memberRepository.save(new Member("projection2", 10, team));
+        em.flush();
+        em.clear();
+
+        // 가장 큰 id 두 개 = 방금 저장한 member
+        PageRequest pageRequest = PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "id"));
+        Page<MemberDto> dtoPage = memberRepository.findMemberDtoPage(pageRequest, CountMode.CACHED);
+        Page<MemberView> viewPage = memberRepository.findMemberViews(pageRequest);
+
+        assertThat(dtoPage.getContent()).extracting(MemberDto::getUsername).containsExactly("projection2", "projection1");
+        assertThat(dtoPage.getContent()).extracting(MemberDto::getTeamName).containsOnly("projectionTeam");
+        assertThat(viewPage.getContent()).extracting(MemberView::getUsername).containsExactly("projection2", "projection1");
+        assertThat(viewPage.getContent()).extracting(MemberView::getTeamName).containsOnly("projectionTeam");
+        assertThat(viewPage.getTotalElements()).isEqualTo(dtoPage.getTotalElements());
+        // 엔티티를 만들지 않았으므로 영속성 컨텍스트가 비어있음
+        assertThat(em.unwrap(org.hibernate.engine.spi.SessionImplementor.class)
+                .getPersistenceContextInternal().getNumberOfManagedEntities()).isZero();
+    }
+
+    @Test
+    public void keysetPaging(){
+        // given
+        memberRepository.save(new Member("zzkey1", 10));
+        memberRepository.save(new Member("zzkey2", 10));
+        memberRepository.save(new Member("zzkey3", 10));
+        memberRepository.save(new Member("zzkey4", 10));
+        memberRepository.save(new Member("zzkey5", 10));
+
+        // "zzkey" 다음부터 username 오름차순으로 3개씩
+        MemberCursor cursor = MemberCursor.of(MemberCursor.SortKey.USERNAME, Sort.Direction.ASC, "zzkey", 0L);
+
+        // when
+        Slice<Member> first = memberRepository.findMemberKeyset(cursor, 3);
+        MemberCursor nextCursor = MemberCursor.decode(cursor.next(first.getContent().get(2)).encode());
+        Slice<Member> second = memberRepository.findMemberKeyset(nextCursor, 3);
+
+        // then
+        assertThat(first.getContent()).extracting("username").containsExactly("zzkey1", "zzkey2", "zzkey3");
+        assertThat(first.hasNext()).isTrue();
+        assertThat(second.getContent()).extracting("username").containsExactly("zzkey4", "zzkey5");
+        assertThat(second.hasNext()).isFalse();
+    }
+
+    @Test
+    public void keysetPagingWithNullUsernames(){
+        // given
+        Member nullA = memberRepository.save(new Member(null, 10));
+        Member nullB = memberRepository.save(new Member(null, 10));
+
+        // 내림차순에서 null 은 맨 뒤 - 가장 작은 non-null 값("") 다음에 null 들이 id 내림차순으로 옴
+        MemberCursor cursor = MemberCursor.of(MemberCursor.SortKey.USERNAME, Sort.Direction.DESC, "", Long.MAX_VALUE);
+
+        // when
+        Slice<Member> first = memberRepository.findMemberKeyset(cursor, 1);
+        MemberCursor nextCursor = MemberCursor.decode(cursor.next(first.getContent().get(0)).encode());
+        Slice<Member> second = memberRepository.findMemberKeyset(nextCursor, 1);
+
+        // then
+        assertThat(first.getContent()).containsExactly(nullB);
+        // null username 은 "null" 문자열이 아니라 null 로 되돌아옴
+        assertThat(nextCursor.getUsername()).isNull();
+        assertThat(nextCursor.getId()).isEqualTo(nullB.getId());
+        assertThat(second.getContent()).containsExactly(nullA);
+    }
+
     /*@Test
     public void slice(){
         // given
@@ -261,6 +413,53 @@ class MemberRepositoryTest {
         assertThat(resultCount).isEqualTo(3);
     }
 
+    @Test
+    public void bulkUpdateTargeted(){
+        Member young = memberRepository.save(new Member("young", 10));
+        Member old = memberRepository.save(new Member("old", 40));
+        Member older = memberRepository.save(new Member("older", 50));
+
+        // REFRESH - 대상 엔티티의 인스턴스가 그대로 DB 값으로 갱신됨
+        int refreshed = memberRepository.bulkAgePlus(40, PersistenceContextSync.REFRESH);
+
+        assertThat(refreshed).isGreaterThanOrEqualTo(2);
+        assertThat(old.getAge()).isEqualTo(41);
+        assertThat(older.getAge()).isEqualTo(51);
+        assertThat(em.contains(old)).isTrue();
+        // version 과 스냅샷도 맞춰졌으므로 이어서 수정해도 낙관적 락 충돌 없이 update 됨
+        older.setAge(60);
+        em.flush();
+        em.detach(older);
+        assertThat(memberRepository.findById(older.getId()).get().getAge()).isEqualTo(60);
+
+        // DETACH - 대상만 영속성 컨텍스트에서 빠지고 관계없는 엔티티는 남아있음
+        memberRepository.bulkAgePlus(41, PersistenceContextSync.DETACH);
+
+        assertThat(em.contains(young)).isTrue();
+        assertThat(em.contains(old)).isFalse();
+        assertThat(em.contains(older)).isFalse();
+        assertThat(memberRepository.findById(old.getId()).get().getAge()).isEqualTo(42);
+    }
+
+    @Test
+    public void saveAllBatched(){
+        // given
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < 250; i++) {
+            members.add(new Member("batch" + i, i));
+        }
+
+        // when
+        // 배치 크기마다 flush/clear 되므로 저장 후 영속성 컨텍스트는 비어있음
+        int savedCount = memberRepository.saveAllBatched(members);
+
+        // then
+        assertThat(savedCount).isEqualTo(250);
+        assertThat(members).allMatch(m -> m.getId() != null);
+        assertThat(em.contains(members.get(0))).isFalse();
+        assertThat(memberRepository.findById(members.get(249).getId())).isPresent();
+    }
+
     @Test
     public void findMemberLazy(){
         // given
@@ -304,6 +503,71 @@ class MemberRepositoryTest {
         }
     }
 
+    @Test
+    public void queryCount(){
+        // given
+        for (int i = 0; i < 3; i++) {
+            Team team = new Team("queryCountTeam" + i);
+            teamRepository.save(team);
+            memberRepository.save(new Member("queryCount", 10, team));
+        }
+        em.flush();
+        em.clear();
+        // 2차 캐시에 team 이 있으면 SQL 이 나가지 않으므로 비우고 측정
+        em.getEntityManagerFactory().getCache().evictAll();
+
+        // when
+        // 지연 로딩: member 조회 1번 + team 들을 batch size 만큼 IN 쿼리로 (N + 1 이 아닌 N / batch + 1)
+        long lazyCount = QueryCounter.count(() -> memberRepository.findListByUsername("queryCount")
+                .forEach(member -> member.getTeam().getName()));
+        em.clear();
+        em.getEntityManagerFactory().getCache().evictAll();
+        // fetch join(EntityGraph): member 와 team 을 한번에 조회
+        long entityGraphCount = QueryCounter.count(() -> memberRepository.findEntityGraphByUsername("queryCount")
+                .forEach(member -> member.getTeam().getName()));
+
+        // then
+        assertThat(lazyCount).isEqualTo(2);
+        assertThat(entityGraphCount).isLessThanOrEqualTo(1);
+    }
+
+    @Test
+    public void findTeamsByMemberIds(){
+        // given
+        Team teamA = new Team("loaderA");
+        Team teamB = new Team("loaderB");
+        teamRepository.save(teamA);
+        teamRepository.save(teamB);
+        Member member1 = memberRepository.save(new Member("loader1", 10, teamA));
+        Member member2 = memberRepository.save(new Member("loader2", 10, teamB));
+        Member member3 = memberRepository.save(new Member("loader3", 10));
+        em.flush();
+        em.clear();
+
+        // when
+        AtomicReference<Map<Long, Team>> teams = new AtomicReference<>();
+        long queryCount = QueryCounter.count(() -> teams.set(teamRepository.findTeamsByMemberIds(
+                List.of(member1.getId(), member2.getId(), member3.getId()))));
+
+        // then
+        assertThat(queryCount).isEqualTo(1);
+        assertThat(teams.get().get(member1.getId()).getName()).isEqualTo("loaderA");
+        assertThat(teams.get().get(member2.getId()).getName()).isEqualTo("loaderB");
+        assertThat(teams.get()).doesNotContainKey(member3.getId());
+    }
+
+    @Test
+    public void queryBudget(){
+        memberRepository.save(new Member("budget", 10));
+        em.flush();
+
+        // 예산을 넘는 SQL 은 실행 전에 막힘
+        assertThatThrownBy(() -> QueryCounter.withBudget(1, () -> {
+            memberRepository.findListByUsername("budget");
+            return memberRepository.findListByUsername("budget");
+        })).hasStackTraceContaining(QueryBudgetExceededException.class.getSimpleName());
+    }
+
     @Test
     public void queryHint(){
         // given
@@ -0,0 +1,57 @@
+package study.datajpa.repository;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Team;
+
+import static org.assertj.core.api.Assertions.*;
+
+// 2차 캐시는 트랜잭션 커밋 시점에 반영되므로 클래스 단위 @Transactional 없이 트랜잭션을 직접 나눠서 검증
+@SpringBootTest
+class TeamRepositoryTest {
+
+    @Autowired TeamRepository teamRepository;
+    @Autowired TeamJpaRepository teamJpaRepository;
+    @Autowired TransactionTemplate transactionTemplate;
+    @Autowired EntityManagerFactory emf;
+
+    @Test
+    public void secondLevelCache(){
+        // given
+        Long teamId = transactionTemplate.execute(status -> teamRepository.save(new Team("cachedTeam")).getId());
+        CacheRegionStatistics statistics = emf.unwrap(SessionFactory.class)
+                .getStatistics()
+                .getCacheRegionStatistics("team");
+        long hitBefore = statistics.getHitCount();
+
+        // when
+        // 새 트랜잭션(새 영속성 컨텍스트)에서 조회해도 2차 캐시에서 가져옴
+        transactionTemplate.executeWithoutResult(status -> teamRepository.findById(teamId));
+        transactionTemplate.executeWithoutResult(status -> teamRepository.findById(teamId));
+
+        // then
+        assertThat(statistics.getHitCount()).isGreaterThan(hitBefore);
+    }
+
+    @Test
+    public void secondLevelCacheInvalidation(){
+        // given
+        Long teamId = transactionTemplate.execute(status -> teamJpaRepository.save(new Team("before")).getId());
+        transactionTemplate.executeWithoutResult(status -> teamRepository.findById(teamId));
+
+        // when
+        // 변경 감지로 수정하면 커밋 시점에 캐시 엔트리도 함께 갱신됨
+        transactionTemplate.executeWithoutResult(status -> teamRepository.findById(teamId).get().setName("after"));
+        String renamed = transactionTemplate.execute(status -> teamRepository.findById(teamId).get().getName());
+        transactionTemplate.executeWithoutResult(status -> teamJpaRepository.delete(teamJpaRepository.findById(teamId).get()));
+
+        // then
+        assertThat(renamed).isEqualTo("after");
+        assertThat(transactionTemplate.execute(status -> teamRepository.findById(teamId))).isEmpty();
+    }
+}
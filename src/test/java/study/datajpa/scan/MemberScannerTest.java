@@ -0,0 +1,92 @@
+package study.datajpa.scan;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.ScanCheckpointRepository;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.*;
+
+// 구간마다 워커 스레드에서 커밋하므로 테스트 트랜잭션으로 롤백할 수 없음, 실행마다 다른 username 접두어/작업 이름 사용
+// 테이블 전체를 훑으므로 processor 는 접두어가 붙은 member 만 건드림
+@SpringBootTest(properties = {"app.member-scan.chunk-size=200", "app.member-scan.clear-interval=50",
+        "app.member-scan.parallelism=4"})
+class MemberScannerTest {
+
+    @Autowired MemberScanner memberScanner;
+    @Autowired MemberRepository memberRepository;
+    @Autowired ScanCheckpointRepository checkpointRepository;
+    @Autowired JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void everyMemberProcessedOnceInParallel(){
+        String prefix = seed("scan");
+        String jobName = prefix + "job";
+        Map<Long, AtomicInteger> visits = new ConcurrentHashMap<>();
+
+        ScanResult result = memberScanner.scan(jobName, member -> {
+            if (member.getUsername() != null && member.getUsername().startsWith(prefix)) {
+                visits.computeIfAbsent(member.getId(), id -> new AtomicInteger()).incrementAndGet();
+            }
+        });
+
+        assertThat(visits).hasSize(1_000);
+        assertThat(visits.values()).allMatch(count -> count.get() == 1);
+        assertThat(result.rows()).isGreaterThanOrEqualTo(1_000);
+        assertThat(result.skippedChunks()).isZero();
+        // 끝난 작업의 체크포인트는 지워짐
+        assertThat(checkpointRepository.findByJobName(jobName)).isEmpty();
+    }
+
+    @Test
+    public void failedScanResumesFromCompletedChunks(){
+        String prefix = seed("resume");
+        String jobName = prefix + "job";
+
+        // 워커 1개로 id 순서대로 처리하다가 700번째에서 실패 -> 그 앞의 구간은 커밋, 실패한 구간은 롤백
+        assertThatThrownBy(() -> memberScanner.scan(jobName, 1, member -> {
+            if (member.getUsername() != null && member.getUsername().startsWith(prefix)) {
+                if (member.getUsername().equals(prefix + 700)) {
+                    throw new IllegalStateException("boom");
+                }
+                member.setAge(member.getAge() + 1);
+            }
+        }))
+                .isInstanceOf(MemberScanFailedException.class)
+                .hasRootCauseMessage("boom");
+
+        int completed = checkpointRepository.findByJobName(jobName).size();
+        Long committed = jdbcTemplate.queryForObject("select count(*) from member where username like ? and age = 1",
+                Long.class, prefix + "%");
+        assertThat(completed).isPositive();
+        assertThat(committed).isBetween(1L, 699L);
+
+        ScanResult resumed = memberScanner.scan(jobName, member -> {
+            if (member.getUsername() != null && member.getUsername().startsWith(prefix)) {
+                member.setAge(member.getAge() + 1);
+            }
+        });
+
+        // 끝난 구간은 다시 처리하지 않고, 롤백된 구간은 다시 처리하므로 모두 정확히 한번씩 +1
+        assertThat(resumed.skippedChunks()).isEqualTo(completed);
+        assertThat(jdbcTemplate.queryForObject("select count(*) from member where username like ? and age = 1",
+                Long.class, prefix + "%")).isEqualTo(1_000);
+        assertThat(checkpointRepository.findByJobName(jobName)).isEmpty();
+    }
+
+    private String seed(String name) {
+        String prefix = name + System.nanoTime() + "_";
+        memberRepository.saveAllBatched(IntStream.range(0, 1_000)
+                .mapToObj(i -> new Member(prefix + i, 0))
+                .toList());
+        return prefix;
+    }
+}